@@ -1,6 +1,7 @@
 package network.bisq.api;
 
 import lombok.extern.slf4j.Slf4j;
+import network.bisq.api.service.SignedTokenService;
 import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
 
@@ -105,7 +106,8 @@ public class BackupManager {
 
     private void backup(Path sourceDir, String outputZipFilename) throws IOException {
         final Path relativeBackupDirPath = appDataDirectoryPath.relativize(getBackupDirectoryPath());
-        final Function<Path, Boolean> shouldSkip = path -> path.startsWith(relativeBackupDirPath);
+        final Path relativeTokenSecretPath = Paths.get(SignedTokenService.SECRET_FILE_NAME);
+        final Function<Path, Boolean> shouldSkip = path -> path.startsWith(relativeBackupDirPath) || path.equals(relativeTokenSecretPath);
         try (
                 FileOutputStream out = new FileOutputStream(outputZipFilename);
                 ZipOutputStream outputStream = new ZipOutputStream(out)
@@ -143,7 +145,8 @@ public class BackupManager {
     }
 
     private void purgeAppDataDirectory() throws IOException {
-        final Function<Path, Boolean> shouldSkip = path -> path.equals(appDataDirectoryPath) || path.startsWith(getBackupDirectoryPath());
+        final Path tokenSecretPath = appDataDirectoryPath.resolve(SignedTokenService.SECRET_FILE_NAME);
+        final Function<Path, Boolean> shouldSkip = path -> path.equals(appDataDirectoryPath) || path.startsWith(getBackupDirectoryPath()) || path.equals(tokenSecretPath);
         Files.walkFileTree(appDataDirectoryPath, new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
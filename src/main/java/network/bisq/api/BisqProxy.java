@@ -1,16 +1,21 @@
 package network.bisq.api;
 
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.name.Names;
 
+import io.dropwizard.jackson.Jackson;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -18,22 +23,27 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
-import javafx.collections.ObservableList;
 
 import org.jetbrains.annotations.NotNull;
 
 import org.spongycastle.crypto.params.KeyParameter;
 
+import bisq.common.UserThread;
 import bisq.common.app.DevEnv;
 import bisq.common.app.Version;
 import bisq.common.crypto.KeyRing;
@@ -52,6 +62,7 @@ import bisq.core.btc.BitcoinNodes;
 import bisq.core.btc.InsufficientFundsException;
 import bisq.core.btc.Restrictions;
 import bisq.core.btc.wallet.BsqWalletService;
+import bisq.core.btc.wallet.BtcCoinSelector;
 import bisq.core.btc.wallet.BtcWalletService;
 import bisq.core.btc.wallet.WalletService;
 import bisq.core.btc.wallet.WalletsManager;
@@ -63,6 +74,7 @@ import bisq.core.locale.CurrencyUtil;
 import bisq.core.locale.FiatCurrency;
 import bisq.core.locale.Res;
 import bisq.core.locale.TradeCurrency;
+import bisq.core.monetary.Price;
 import bisq.core.offer.Offer;
 import bisq.core.offer.OfferBookService;
 import bisq.core.offer.OfferPayload;
@@ -105,34 +117,42 @@ import network.bisq.api.model.AuthResult;
 import network.bisq.api.model.BitcoinNetworkStatus;
 import network.bisq.api.model.ClosedTradableConverter;
 import network.bisq.api.model.ClosedTradableDetails;
-import network.bisq.api.model.Currency;
 import network.bisq.api.model.CurrencyList;
 import network.bisq.api.model.Market;
 import network.bisq.api.model.MarketList;
+import network.bisq.api.model.OfferDetail;
+import network.bisq.api.model.OfferToCreate;
 import network.bisq.api.model.P2PNetworkConnection;
 import network.bisq.api.model.P2PNetworkStatus;
 import network.bisq.api.model.PaymentAccountList;
 import network.bisq.api.model.Preferences;
 import network.bisq.api.model.PreferencesAvailableValues;
+import network.bisq.api.model.PriceType;
 import network.bisq.api.model.PriceFeed;
 import network.bisq.api.model.SeedWords;
+import network.bisq.api.model.TradeDetails;
+import network.bisq.api.model.TradeRule;
+import network.bisq.api.model.Utxo;
+import network.bisq.api.model.UtxoList;
 import network.bisq.api.model.VersionDetails;
 import network.bisq.api.model.WalletAddress;
 import network.bisq.api.model.WalletAddressList;
 import network.bisq.api.model.WalletDetails;
-import network.bisq.api.model.WalletTransaction;
 import network.bisq.api.model.WalletTransactionList;
+import network.bisq.api.model.WithdrawFundsResult;
+import network.bisq.api.model.WithdrawQuote;
 import network.bisq.api.model.payment.PaymentAccountHelper;
-import network.bisq.api.service.TokenRegistry;
+import network.bisq.api.service.TokenService;
 import org.bitcoinj.core.Address;
 import org.bitcoinj.core.Coin;
 import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.NetworkParameters;
 import org.bitcoinj.core.Peer;
 import org.bitcoinj.core.Transaction;
-import org.bitcoinj.core.TransactionConfidence;
 import org.bitcoinj.core.TransactionOutput;
 import org.bitcoinj.crypto.KeyCrypterScrypt;
 import org.bitcoinj.wallet.DeterministicSeed;
+import org.bitcoinj.wallet.SendRequest;
 import org.bitcoinj.wallet.Wallet;
 
 import static bisq.core.payment.PaymentAccountUtil.isPaymentAccountValidForOffer;
@@ -159,6 +179,19 @@ public class BisqProxy {
     private FailedTradesManager failedTradesManager;
     private OpenOfferManager openOfferManager;
     private OfferBookService offerBookService;
+    private final OfferBookIndex offerBookIndex;
+    private final OfferDetailCache offerDetailCache;
+    @Getter
+    private final CollectionVersions collectionVersions;
+    private final TradeIndex tradeIndex;
+    private final ClosedTradableIndex closedTradableIndex;
+    private final HistoryExporter historyExporter = new HistoryExporter(Jackson.newObjectMapper());
+    private final WalletBalanceAggregator walletBalanceAggregator;
+    private final WalletAddressIndex walletAddressIndex;
+    private final WithdrawQuoteCache withdrawQuoteCache = new WithdrawQuoteCache();
+    private final WalletTransactionIndex walletTransactionIndex;
+    private final WalletEventStream walletEventStream;
+    private final TradeRuleEngine tradeRuleEngine;
     private P2PService p2PService;
     private KeyRing keyRing;
     private FeeService feeService;
@@ -168,9 +201,7 @@ public class BisqProxy {
     private final boolean useDevPrivilegeKeys;
     private WalletsSetup walletsSetup;
     @Getter
-    private MarketList marketList;
-    @Getter
-    private CurrencyList currencyList;
+    private final MarketCatalog marketCatalog;
     private final BackupManager backupManager;
     private final BackupRestoreManager backupRestoreManager;
 
@@ -182,6 +213,8 @@ public class BisqProxy {
         this.tradeManager = injector.getInstance(TradeManager.class);
         this.openOfferManager = injector.getInstance(OpenOfferManager.class);
         this.offerBookService = injector.getInstance(OfferBookService.class);
+        this.offerDetailCache = new OfferDetailCache(Jackson.newObjectMapper());
+        this.offerBookIndex = new OfferBookIndex(offerBookService, offerDetailCache);
         this.p2PService = injector.getInstance(P2PService.class);
         this.keyRing = injector.getInstance(KeyRing.class);
         this.user = injector.getInstance(User.class);
@@ -189,12 +222,19 @@ public class BisqProxy {
         this.preferences = injector.getInstance(bisq.core.user.Preferences.class);
         this.bsqWalletService = injector.getInstance(BsqWalletService.class);
         this.shutdown = shutdown;
-        this.marketList = calculateMarketList();
-        this.currencyList = calculateCurrencyList();
+        this.marketCatalog = injector.getInstance(MarketCatalog.class);
         this.walletsSetup = injector.getInstance(WalletsSetup.class);
         this.closedTradableManager = injector.getInstance(ClosedTradableManager.class);
         this.failedTradesManager = injector.getInstance(FailedTradesManager.class);
+        this.tradeIndex = new TradeIndex(tradeManager);
+        this.closedTradableIndex = new ClosedTradableIndex(closedTradableManager, injector.getInstance(ClosedTradableConverter.class));
+        this.collectionVersions = new CollectionVersions(offerBookIndex, injector.getInstance(PriceFeedService.class), tradeManager, closedTradableManager);
+        this.walletBalanceAggregator = new WalletBalanceAggregator(btcWalletService, openOfferManager, tradeManager, closedTradableManager, failedTradesManager);
+        this.walletAddressIndex = new WalletAddressIndex(btcWalletService, walletsSetup, openOfferManager, tradeManager, closedTradableManager);
+        this.walletTransactionIndex = new WalletTransactionIndex(btcWalletService, bsqWalletService, walletsSetup.getBtcWallet());
+        this.walletEventStream = new WalletEventStream(btcWalletService, walletsSetup, walletBalanceAggregator, walletTransactionIndex, walletAddressIndex);
         this.useDevPrivilegeKeys = injector.getInstance(Key.get(Boolean.class, Names.named(AppOptionKeys.USE_DEV_PRIVILEGE_KEYS)));
+        this.tradeRuleEngine = new TradeRuleEngine(tradeIndex, walletsSetup, this::executeTradeRuleAction);
 
         final BisqEnvironment bisqEnvironment = injector.getInstance(BisqEnvironment.class);
         final String appDataDir = bisqEnvironment.getAppDataDir();
@@ -202,24 +242,12 @@ public class BisqProxy {
         backupRestoreManager = new BackupRestoreManager(appDataDir);
     }
 
-    public static CurrencyList calculateCurrencyList() {
-        CurrencyList currencyList = new CurrencyList();
-        CurrencyUtil.getAllSortedCryptoCurrencies().forEach(cryptoCurrency -> currencyList.add(cryptoCurrency.getCode(), cryptoCurrency.getName(), "crypto"));
-        CurrencyUtil.getAllSortedFiatCurrencies().forEach(fiatCurrency -> currencyList.add(fiatCurrency.getCurrency().getCurrencyCode(), fiatCurrency.getName(), "fiat"));
-        Collections.sort(currencyList.currencies, (network.bisq.api.model.Currency p1, Currency p2) -> p1.name.compareTo(p2.name));
-        return currencyList;
+    public MarketList getMarketList() {
+        return marketCatalog.getMarketList();
     }
 
-    public static MarketList calculateMarketList() {
-        MarketList marketList = new MarketList();
-        CurrencyList currencyList = calculateCurrencyList(); // we calculate this twice but only at startup
-        //currencyList.getCurrencies().stream().flatMap(currency -> marketList.getMarkets().forEach(currency1 -> cur))
-        List<Market> btc = CurrencyUtil.getAllSortedCryptoCurrencies().stream().filter(cryptoCurrency -> !(cryptoCurrency.getCode().equals("BTC"))).map(cryptoCurrency -> new Market(cryptoCurrency.getCode(), "BTC")).collect(toList());
-        marketList.markets.addAll(btc);
-        btc = CurrencyUtil.getAllSortedFiatCurrencies().stream().map(cryptoCurrency -> new Market("BTC", cryptoCurrency.getCode())).collect(toList());
-        marketList.markets.addAll(btc);
-        Collections.sort(currencyList.currencies, Comparator.comparing(p -> p.name));
-        return marketList;
+    public CurrencyList getCurrencyList() {
+        return marketCatalog.getCurrencyList();
     }
 
     public PaymentAccount addPaymentAccount(PaymentAccount paymentAccount) {
@@ -259,6 +287,7 @@ public class BisqProxy {
         }
 
         accountAgeWitnessService.publishMyAccountAgeWitness(paymentAccount.getPaymentAccountPayload());
+        collectionVersions.paymentAccountsChanged();
         return paymentAccount;
     }
 
@@ -269,6 +298,7 @@ public class BisqProxy {
             throw new NotFoundException("Payment account not found: " + id);
         }
         user.removePaymentAccount(paymentAccount);
+        collectionVersions.paymentAccountsChanged();
     }
 
     private List<PaymentAccount> getPaymentAccountList() {
@@ -293,23 +323,131 @@ public class BisqProxy {
         if (!openOfferById.isPresent()) {
             return failFuture(futureResult, new NotFoundException("Offer not found: " + offerId));
         }
-        openOfferManager.removeOpenOffer(openOfferById.get(),
+        return removeOpenOffer(openOfferById.get());
+    }
+
+    /**
+     * Cancels all of my open offers matching the given criteria. When offerIds are given only those offers are
+     * considered and the returned map holds every one of them: unknown ids fail with NotFoundException, offers that do
+     * not match the other criteria fail with ValidationException and are left open. At least one criterion is
+     * required. All removals are started at once, the returned map is keyed by offer id.
+     */
+    public Map<String, CompletableFuture<Void>> offerCancelBatch(@Nullable List<String> offerIds, @Nullable String marketPair,
+                                                                 @Nullable OfferPayload.Direction direction, @Nullable String paymentAccountId) {
+        if (null == offerIds && null == marketPair && null == direction && null == paymentAccountId)
+            throw new ValidationException("Specify offerIds or at least one of market, direction and paymentAccountId");
+
+        final Map<String, CompletableFuture<Void>> results = new LinkedHashMap<>();
+        final List<OpenOffer> openOffers = new ArrayList<>();
+        if (null == offerIds) {
+            openOffers.addAll(openOfferManager.getObservableList());
+        } else {
+            for (String offerId : offerIds) {
+                final Optional<OpenOffer> openOffer = openOfferManager.getOpenOfferById(offerId);
+                if (openOffer.isPresent())
+                    openOffers.add(openOffer.get());
+                else
+                    results.put(offerId, failFuture(new CompletableFuture<>(), new NotFoundException("Offer not found: " + offerId)));
+            }
+        }
+        for (OpenOffer openOffer : openOffers) {
+            if (results.containsKey(openOffer.getId()))
+                continue;
+            final Offer offer = openOffer.getOffer();
+            final boolean matches = (null == marketPair || marketPair.equalsIgnoreCase(OfferBookIndex.getMarketPair(offer)))
+                    && (null == direction || direction == offer.getDirection())
+                    && (null == paymentAccountId || paymentAccountId.equals(offer.getOfferPayload().getMakerPaymentAccountId()));
+            if (matches)
+                results.put(openOffer.getId(), removeOpenOffer(openOffer));
+            else if (null != offerIds)
+                results.put(openOffer.getId(), failFuture(new CompletableFuture<>(), new ValidationException("Offer does not match the given filters: " + openOffer.getId())));
+        }
+        return results;
+    }
+
+    private CompletableFuture<Void> removeOpenOffer(OpenOffer openOffer) {
+        final CompletableFuture<Void> futureResult = new CompletableFuture<>();
+        openOfferManager.removeOpenOffer(openOffer,
                 () -> futureResult.complete(null),
                 error -> futureResult.completeExceptionally(new RuntimeException(error)));
         return futureResult;
     }
 
     public Offer getOffer(String offerId) {
-        final String safeOfferId = (null == offerId) ? "" : offerId;
-        final Optional<Offer> offerOptional = offerBookService.getOffers().stream().filter(offer1 -> safeOfferId.equals(offer1.getId())).findAny();
-        if (!offerOptional.isPresent()) {
+        final Offer offer = offerBookIndex.getOffer(offerId);
+        if (null == offer) {
             throw new NotFoundException("Offer not found: " + offerId);
         }
-        return offerOptional.get();
+        return offer;
     }
 
     public List<Offer> getOfferList() {
-        return offerBookService.getOffers();
+        return offerBookIndex.getOffers();
+    }
+
+    public OfferDetail getOfferDetail(Offer offer) {
+        return offerDetailCache.getDetail(offer);
+    }
+
+    public TradeDetails getTradeDetails(Trade trade) {
+        final Offer offer = trade.getOffer();
+        return new TradeDetails(trade, null == offer ? null : offerDetailCache.getDetail(offer));
+    }
+
+    public void writeOfferList(Page<Offer> page, OutputStream outputStream) throws IOException {
+        offerDetailCache.writeOfferList(page.getItems(), page.getTotal(), page.getNextCursor(), outputStream);
+    }
+
+    public Runnable subscribeToOfferBook(@Nullable String lastEventId, EventJournal.Listener<Object> listener) {
+        return offerBookIndex.subscribe(lastEventId, listener);
+    }
+
+    public Page<Offer> findOffers(@Nullable String marketPair, @Nullable OfferPayload.Direction direction, @Nullable String paymentMethodId,
+                                  @Nullable Long minPrice, @Nullable Long maxPrice, @Nullable Long minAmount, @Nullable Long maxAmount,
+                                  @Nullable String sort, @Nullable String cursor, @Nullable Integer limit) {
+        final String offerSort = null == sort ? "date" : sort;
+        final boolean filterByPrice = null != minPrice || null != maxPrice;
+        final List<Offer> candidates = offerBookIndex.find(marketPair, direction, paymentMethodId);
+        // market based prices move while the page is built, so offers are filtered and sorted by one captured price
+        final Map<String, Long> prices = new HashMap<>();
+        if (filterByPrice || "price".equals(offerSort) || "-price".equals(offerSort))
+            candidates.forEach(offer -> prices.put(offer.getId(), getOfferPrice(offer)));
+        final Pager<Offer> pager = getOfferPager(offerSort, offer -> prices.get(offer.getId()));
+        if (filterByPrice || null != minAmount || null != maxAmount) {
+            candidates.removeIf(offer -> {
+                final long amount = offer.getAmount().value;
+                if ((null != minAmount && amount < minAmount) || (null != maxAmount && amount > maxAmount))
+                    return true;
+                if (!filterByPrice)
+                    return false;
+                final long price = prices.get(offer.getId());
+                return (null != minPrice && (Long.MAX_VALUE == price || price < minPrice)) || (null != maxPrice && price > maxPrice);
+            });
+        }
+        return pager.page(candidates, cursor, limit);
+    }
+
+    private static Pager<Offer> getOfferPager(String sort, ToLongFunction<Offer> price) {
+        final boolean descending = sort.startsWith("-");
+        final String sortKey = descending ? sort.substring(1) : sort;
+        switch (sortKey) {
+            case "date":
+                return new Pager<>(sort, offer -> offer.getDate().getTime(), Offer::getId, descending);
+            case "price":
+                return new Pager<>(sort, price, Offer::getId, descending);
+            case "amount":
+                return new Pager<>(sort, offer -> offer.getAmount().value, Offer::getId, descending);
+            default:
+                throw new ValidationException("Unsupported sort: " + sort + ". Allowed values are: date, price, amount, optionally prefixed with '-' for descending order");
+        }
+    }
+
+    /**
+     * Offers with market based price have no price when market price is not available. Those are treated as most expensive.
+     */
+    private static long getOfferPrice(Offer offer) {
+        final Price price = offer.getPrice();
+        return null == price ? Long.MAX_VALUE : price.getValue();
     }
 
     public CompletableFuture<Offer> offerMake(boolean fundUsingBisqWallet, String offerId, String accountId, OfferPayload.Direction direction, long amount, long minAmount,
@@ -327,9 +465,52 @@ public class BisqProxy {
         } catch (Exception e) {
             return failFuture(futureResult, e);
         }
+        return placeOffer(offer, fundUsingBisqWallet);
+    }
+
+    /**
+     * Creates several offers at once. All offers are built and validated first, sharing a single OfferBuilder, then
+     * the valid ones are placed without waiting for each other. The returned futures are in the order of the input.
+     */
+    public List<CompletableFuture<Offer>> offerMakeBatch(List<OfferToCreate> offersToCreate) {
+        final Set<String> offerIds = new HashSet<>();
+        for (OfferToCreate offerToCreate : offersToCreate)
+            if (null != offerToCreate.offerId && !offerIds.add(offerToCreate.offerId))
+                throw new ValidationException("Duplicate offerId: " + offerToCreate.offerId);
+        final OfferBuilder offerBuilder = injector.getInstance(OfferBuilder.class);
+        final List<CompletableFuture<Offer>> results = new ArrayList<>(offersToCreate.size());
+        final Offer[] offers = new Offer[offersToCreate.size()];
+        for (int i = 0; i < offers.length; i++) {
+            final OfferToCreate offerToCreate = offersToCreate.get(i);
+            final CompletableFuture<Offer> futureResult = new CompletableFuture<>();
+            results.add(futureResult);
+            if (!offerToCreate.fundUsingBisqWallet && null == offerToCreate.offerId) {
+                failFuture(futureResult, new ValidationException("Specify offerId of earlier prepared offer if you want to use dedicated wallet address."));
+                continue;
+            }
+            final boolean useMarketBasedPrice = PriceType.PERCENTAGE.equals(PriceType.valueOf(offerToCreate.priceType));
+            final Double marketPriceMargin = null == offerToCreate.percentageFromMarketPrice ? null : offerToCreate.percentageFromMarketPrice.doubleValue();
+            try {
+                offers[i] = offerBuilder.build(offerToCreate.offerId, offerToCreate.accountId,
+                        OfferPayload.Direction.valueOf(offerToCreate.direction), offerToCreate.amount, offerToCreate.minAmount,
+                        useMarketBasedPrice, marketPriceMargin, offerToCreate.marketPair, offerToCreate.fixedPrice, offerToCreate.buyerSecurityDeposit);
+            } catch (Exception e) {
+                failFuture(futureResult, e);
+            }
+        }
+        for (int i = 0; i < offers.length; i++) {
+            if (null != offers[i])
+                results.set(i, placeOffer(offers[i], offersToCreate.get(i).fundUsingBisqWallet));
+        }
+        return results;
+    }
+
+    private CompletableFuture<Offer> placeOffer(Offer offer, boolean fundUsingBisqWallet) {
+        final CompletableFuture<Offer> futureResult = new CompletableFuture<>();
+        final OfferPayload.Direction direction = offer.getDirection();
         Coin reservedFundsForOffer = OfferUtil.isBuyOffer(direction) ? preferences.getBuyerSecurityDepositAsCoin() : Restrictions.getSellerSecurityDeposit();
         if (!OfferUtil.isBuyOffer(direction))
-            reservedFundsForOffer = reservedFundsForOffer.add(Coin.valueOf(amount));
+            reservedFundsForOffer = reservedFundsForOffer.add(offer.getAmount());
 
 //        TODO check if there is sufficient money cause openOfferManager will log exception and pass just message
 //        TODO openOfferManager should return CompletableFuture or at least send full exception to error handler
@@ -459,143 +640,127 @@ public class BisqProxy {
 
     /// STOP TODO REFACTOR OFFER TAKE DEPENDENCIES //////////////////////////
 
-    public List<Trade> getTradeList() {
-        final ObservableList<Trade> tradableList = tradeManager.getTradableList();
-        if (null != tradableList) return tradableList.sorted();
-        return Collections.emptyList();
+    public Page<Trade> findTrades(@Nullable Trade.State state, @Nullable String marketPair, @Nullable Long from, @Nullable Long to,
+                                  @Nullable String sort, @Nullable String cursor, @Nullable Integer limit) {
+        final Pager<Trade> pager = getTradePager(null == sort ? "date" : sort);
+        return pager.page(tradeIndex.find(state, marketPair, from, to), cursor, limit);
+    }
+
+    private static Pager<Trade> getTradePager(String sort) {
+        final boolean descending = sort.startsWith("-");
+        final String sortKey = descending ? sort.substring(1) : sort;
+        switch (sortKey) {
+            case "date":
+                return new Pager<>(sort, trade -> trade.getTakeOfferDate().getTime(), Trade::getId, descending);
+            case "amount":
+                return new Pager<>(sort, Trade::getTradeAmountAsLong, Trade::getId, descending);
+            default:
+                throw new ValidationException("Unsupported sort: " + sort + ". Allowed values are: date, amount, optionally prefixed with '-' for descending order");
+        }
     }
 
-    public List<ClosedTradableDetails> getClosedTradableList() {
-        final ClosedTradableConverter closedTradableConverter = injector.getInstance(ClosedTradableConverter.class);
-        return closedTradableManager.getClosedTradables().stream()
-                .sorted((o1, o2) -> o2.getDate().compareTo(o1.getDate()))
-                .map(closedTradableConverter::convert)
-                .collect(toList());
+    public void writeClosedTradableHistory(@Nullable Long from, @Nullable Long to, HistoryExporter.Format format, OutputStream outputStream) throws IOException {
+        historyExporter.write(closedTradableIndex.getHistory(from, to), format, HistoryExporter.CLOSED_TRADABLE_COLUMNS, outputStream);
+    }
+
+    /**
+     * Writes the pending trades taken in the given date range, oldest first. Trades are converted one at a time while
+     * they are written.
+     */
+    public void writeTradeHistory(@Nullable Long from, @Nullable Long to, HistoryExporter.Format format, OutputStream outputStream) throws IOException {
+        final List<Trade> trades = tradeIndex.find(null, null, from, to);
+        trades.sort(Comparator.comparing(Trade::getTakeOfferDate).thenComparing(Trade::getId));
+        historyExporter.write(Iterables.transform(trades, this::getTradeDetails), format, HistoryExporter.TRADE_COLUMNS, outputStream);
+    }
+
+    public Page<ClosedTradableDetails> findClosedTradables(@Nullable Long from, @Nullable Long to, @Nullable String currencyCode, @Nullable String status,
+                                                           @Nullable String cursor, @Nullable Integer limit) {
+        return closedTradableIndex.find(from, to, currencyCode, status, cursor, limit);
     }
 
     public Trade getTrade(String tradeId) {
-        final String safeTradeId = (null == tradeId) ? "" : tradeId;
-        final Optional<Trade> tradeOptional = getTradeList().stream().filter(item -> safeTradeId.equals(item.getId())).findAny();
-        if (!tradeOptional.isPresent()) {
+        final Trade trade = tradeIndex.getTrade(tradeId);
+        if (null == trade) {
             throw new NotFoundException("Trade not found: " + tradeId);
         }
-        return tradeOptional.get();
+        return trade;
+    }
+
+    public Runnable subscribeToTrades(@Nullable String lastEventId, @Nullable Set<String> tradeIds, EventJournal.Listener<Object> listener) {
+        return tradeIndex.subscribe(lastEventId, tradeIds, listener);
     }
 
     public WalletDetails getWalletDetails() {
         if (!btcWalletService.isWalletReady()) {
             throw new WalletNotReadyException("Wallet is not ready");
         }
-
-        Coin availableBalance = btcWalletService.getAvailableBalance();
-        Coin reservedBalance = updateReservedBalance();
-        Coin lockedBalance = updateLockedBalance();
-        return new WalletDetails(availableBalance.getValue(), reservedBalance.getValue(), lockedBalance.getValue());
+        return walletBalanceAggregator.getWalletDetails();
     }
 
-    // TODO copied from MainViewModel - refactor !
-    private Coin updateLockedBalance() {
-        Stream<Trade> lockedTrades = Stream.concat(closedTradableManager.getLockedTradesStream(), failedTradesManager.getLockedTradesStream());
-        lockedTrades = Stream.concat(lockedTrades, tradeManager.getLockedTradesStream());
-        Coin sum = Coin.valueOf(lockedTrades
-                .mapToLong(trade -> {
-                    final Optional<AddressEntry> addressEntryOptional = btcWalletService.getAddressEntry(trade.getId(), AddressEntry.Context.MULTI_SIG);
-                    if (addressEntryOptional.isPresent())
-                        return addressEntryOptional.get().getCoinLockedInMultiSig().getValue();
-                    else
-                        return 0;
-                })
-                .sum());
-        return sum;
+    public Runnable subscribeToWalletEvents(@Nullable String lastEventId, EventJournal.Listener<Object> listener) {
+        return walletEventStream.subscribe(lastEventId, listener);
     }
 
-    // TODO copied from MainViewModel - refactor !
-    private Coin updateReservedBalance() {
-        Coin sum = Coin.valueOf(openOfferManager.getObservableList().stream()
-                .map(openOffer -> {
-                    final Optional<AddressEntry> addressEntryOptional = btcWalletService.getAddressEntry(openOffer.getId(), AddressEntry.Context.RESERVED_FOR_TRADE);
-                    if (addressEntryOptional.isPresent()) {
-                        Address address = addressEntryOptional.get().getAddress();
-                        return btcWalletService.getBalanceForAddress(address);
-                    } else {
-                        return null;
-                    }
-                })
-                .filter(e -> e != null)
-                .mapToLong(Coin::getValue)
-                .sum());
-
-        return sum;
+    public WalletTransactionList getWalletTransactions(@Nullable Long since, @Nullable String cursor, @Nullable Integer limit) {
+        return walletTransactionIndex.find(since, cursor, limit);
     }
 
-
-    public WalletTransactionList getWalletTransactions() {
+    /**
+     * Unspent outputs of the BTC wallet with the context of the address entry owning them, built in a single pass over
+     * the wallet. Outputs of addresses without an entry have no context.
+     */
+    public UtxoList getUtxos(@Nullable AddressEntry.Context context, @Nullable Integer minConfirmations, @Nullable String sort,
+                             @Nullable String cursor, @Nullable Integer limit) {
+        final Pager<Utxo> pager = getUtxoPager(null == sort ? "value" : sort);
         final Wallet wallet = walletsSetup.getBtcWallet();
-        WalletTransactionList walletTransactions = new WalletTransactionList();
-        walletTransactions.transactions.addAll(btcWalletService.getTransactions(true)
-                .stream()
-                .map(transaction -> toWalletTransaction(wallet, transaction))
-                .collect(Collectors.toList()));
-        walletTransactions.total = walletTransactions.transactions.size();
-        return walletTransactions;
-    }
-
-    @NotNull
-    private WalletTransaction toWalletTransaction(Wallet wallet, Transaction transaction) {
-        final Coin valueSentFromMe = transaction.getValueSentFromMe(wallet);
-        final Coin valueSentToMe = transaction.getValueSentToMe(wallet);
-        boolean received = false;
-        String addressString = null;
-
-        if (valueSentToMe.isZero()) {
-            for (TransactionOutput output : transaction.getOutputs()) {
-                if (!btcWalletService.isTransactionOutputMine(output)) {
-                    received = false;
-                    if (WalletService.isOutputScriptConvertibleToAddress(output)) {
-                        addressString = WalletService.getAddressStringFromOutput(output);
-                        break;
-                    }
-                }
-            }
-        } else if (valueSentFromMe.isZero()) {
-            received = true;
-            for (TransactionOutput output : transaction.getOutputs()) {
-                if (btcWalletService.isTransactionOutputMine(output) &&
-                        WalletService.isOutputScriptConvertibleToAddress(output)) {
-                    addressString = WalletService.getAddressStringFromOutput(output);
-                    break;
-                }
-            }
-        } else {
-            boolean outgoing = false;
-            for (TransactionOutput output : transaction.getOutputs()) {
-                if (!btcWalletService.isTransactionOutputMine(output)) {
-                    if (WalletService.isOutputScriptConvertibleToAddress(output)) {
-                        addressString = WalletService.getAddressStringFromOutput(output);
-                        outgoing = !(BisqEnvironment.isBaseCurrencySupportingBsq() && bsqWalletService.isTransactionOutputMine(output));
-                        break;
-                    }
-                }
-            }
+        final int bestChainHeight = wallet.getLastBlockSeenHeight();
+        final List<Utxo> utxos = new ArrayList<>();
+        for (TransactionOutput output : wallet.getUnspents()) {
+            final Transaction parentTransaction = output.getParentTransaction();
+            if (null == parentTransaction)
+                continue;
+            final Utxo utxo = new Utxo();
+            utxo.txHash = parentTransaction.getHashAsString();
+            utxo.outputIndex = output.getIndex();
+            utxo.value = output.getValue().value;
+            utxo.confirmations = WalletTransactionIndex.getConfirmations(parentTransaction, bestChainHeight);
+            if (WalletService.isOutputScriptConvertibleToAddress(output))
+                utxo.address = WalletService.getAddressStringFromOutput(output);
+            utxos.add(utxo);
+        }
 
-            if (outgoing) {
-                received = false;
+        final Map<String, AddressEntry> entriesByAddress = walletAddressIndex.resolve(utxos.stream()
+                .map(utxo -> utxo.address)
+                .collect(Collectors.toSet()));
+        utxos.forEach(utxo -> {
+            final AddressEntry entry = null == utxo.address ? null : entriesByAddress.get(utxo.address);
+            if (null != entry) {
+                utxo.context = entry.getContext();
+                utxo.offerId = entry.getOfferId();
             }
+        });
+        if (null != context || null != minConfirmations)
+            utxos.removeIf(utxo -> (null != context && context != utxo.context) || (null != minConfirmations && utxo.confirmations < minConfirmations));
+
+        final Page<Utxo> page = pager.page(utxos, cursor, limit);
+        final UtxoList utxoList = new UtxoList();
+        utxoList.utxos = page.getItems();
+        utxoList.total = page.getTotal();
+        utxoList.nextCursor = page.getNextCursor();
+        return utxoList;
+    }
+
+    private static Pager<Utxo> getUtxoPager(String sort) {
+        final boolean descending = sort.startsWith("-");
+        final String sortKey = descending ? sort.substring(1) : sort;
+        switch (sortKey) {
+            case "value":
+                return new Pager<>(sort, utxo -> utxo.value, utxo -> utxo.txHash + ":" + utxo.outputIndex, descending);
+            case "confirmations":
+                return new Pager<>(sort, utxo -> utxo.confirmations, utxo -> utxo.txHash + ":" + utxo.outputIndex, descending);
+            default:
+                throw new ValidationException("Unsupported sort: " + sort + ". Allowed values are: value, confirmations, optionally prefixed with '-' for descending order");
         }
-        final TransactionConfidence confidence = transaction.getConfidence();
-        int confirmations = null == confidence ? 0 : confidence.getDepthInBlocks();
-
-        final WalletTransaction walletTransaction = new WalletTransaction();
-        walletTransaction.updateTime = transaction.getUpdateTime().getTime();
-        walletTransaction.hash = transaction.getHashAsString();
-        walletTransaction.fee = (transaction.getFee() == null) ? -1 : transaction.getFee().value;
-        walletTransaction.value = transaction.getValue(wallet).value;
-        walletTransaction.valueSentFromMe = valueSentFromMe.value;
-        walletTransaction.valueSentToMe = valueSentToMe.value;
-        walletTransaction.confirmations = confirmations;
-        walletTransaction.inbound = received;
-        walletTransaction.address = addressString;
-        return walletTransaction;
     }
 
     public WalletAddressList getWalletAddresses(WalletAddressPurpose purpose) {
@@ -607,12 +772,14 @@ public class BisqProxy {
         } else if (WalletAddressPurpose.LOCKED_FUNDS.equals(purpose)) {
             addressEntryStream = getLockedFundsAddressEntryStream();
         } else if (WalletAddressPurpose.RECEIVE_FUNDS.equals(purpose)) {
-            addressEntryStream = btcWalletService.getAvailableAddressEntries().stream();
+            addressEntryStream = walletAddressIndex.getAddressEntries(AddressEntry.Context.AVAILABLE).stream();
         } else {
-            addressEntryStream = btcWalletService.getAddressEntryListAsImmutableList().stream();
+            addressEntryStream = walletAddressIndex.getAddressEntries().stream();
         }
-        final List<WalletAddress> walletAddresses = addressEntryStream
-                .map(entry -> convertAddressEntryToWalletAddress(entry, btcWalletService))
+        final List<AddressEntry> addressEntries = addressEntryStream.collect(toList());
+        walletAddressIndex.prefetch(addressEntries);
+        final List<WalletAddress> walletAddresses = addressEntries.stream()
+                .map(this::convertAddressEntryToWalletAddress)
                 .collect(toList());
         final WalletAddressList walletAddressList = new WalletAddressList();
         walletAddressList.walletAddresses = walletAddresses;
@@ -620,22 +787,172 @@ public class BisqProxy {
         return walletAddressList;
     }
 
-    public void withdrawFunds(Set<String> sourceAddresses, Coin amountAsCoin, boolean feeExcluded, String targetAddress)
+    public WithdrawQuote getWithdrawQuote(Set<String> sourceAddresses, Coin amountAsCoin, boolean feeExcluded)
+            throws AddressEntryException, InsufficientFundsException, AmountTooLowException {
+        final Collection<AddressEntry> sourceAddressEntries = getWithdrawableAddressEntries(sourceAddresses);
+        final WithdrawQuoteCache.Quote quote = estimateWithdrawal(sourceAddresses, amountAsCoin, feeExcluded, getTotalBalance(sourceAddressEntries));
+        withdrawQuoteCache.put(quote);
+        return new WithdrawQuote(quote.getId(), quote.getFee().value, quote.getSendersAmount().value, quote.getReceiverAmount().value, quote.getExpiresAt());
+    }
+
+    /**
+     * Completes once the withdrawal transaction has been broadcast. Validation errors fail the future with
+     * ValidationException, AddressEntryException, InsufficientFundsException or AmountTooLowException. A matching quote
+     * id saves the fee estimation.
+     */
+    public CompletableFuture<WithdrawFundsResult> withdrawFunds(Set<String> sourceAddresses, Coin amountAsCoin, boolean feeExcluded, String targetAddress,
+                                                                @Nullable String quoteId) {
+        final CompletableFuture<WithdrawFundsResult> futureResult = new CompletableFuture<>();
+        try {
+            sendFunds(sourceAddresses, amountAsCoin, feeExcluded, targetAddress, quoteId, futureResult);
+        } catch (Exception e) {
+            return failFuture(futureResult, e);
+        }
+        return futureResult;
+    }
+
+    private void sendFunds(Set<String> sourceAddresses, Coin amountAsCoin, boolean feeExcluded, String targetAddress, @Nullable String quoteId,
+                           CompletableFuture<WithdrawFundsResult> futureResult)
             throws AddressEntryException, InsufficientFundsException, AmountTooLowException {
+        final Collection<AddressEntry> sourceAddressEntries = getWithdrawableAddressEntries(sourceAddresses);
+        if (!new BtcAddressValidator().validate(targetAddress).isValid)
+            throw new ValidationException("Invalid target address");
+        final Coin totalAvailableAmountOfSelectedItems = getTotalBalance(sourceAddressEntries);
+        WithdrawQuoteCache.Quote quote = withdrawQuoteCache.take(quoteId, sourceAddresses, amountAsCoin, feeExcluded, totalAvailableAmountOfSelectedItems);
+        if (null == quote)
+            quote = estimateWithdrawal(sourceAddresses, amountAsCoin, feeExcluded, totalAvailableAmountOfSelectedItems);
+        final Coin fee = quote.getFee();
+
+        final Set<String> payoutTradeIds = getPayoutTradeIds(sourceAddressEntries);
+        try {
+            btcWalletService.sendFundsForMultipleAddresses(sourceAddresses, targetAddress, amountAsCoin, fee, null, null,
+                    toWithdrawCallback(futureResult, fee, payoutTradeIds));
+        } catch (org.bitcoinj.core.InsufficientMoneyException e) {
+            throw new InsufficientFundsException(e.getMessage());
+        }
+    }
+
+    /**
+     * Sends the given amounts to many addresses in a single transaction funded from the given source addresses. The
+     * sender pays the fee, which is calculated from the current fee rate.
+     */
+    public CompletableFuture<WithdrawFundsResult> withdrawFundsBatch(Set<String> sourceAddresses, Map<String, Coin> amountsByTargetAddress) {
+        final CompletableFuture<WithdrawFundsResult> futureResult = new CompletableFuture<>();
+        try {
+            sendFundsBatch(sourceAddresses, amountsByTargetAddress, futureResult);
+        } catch (Exception e) {
+            return failFuture(futureResult, e);
+        }
+        return futureResult;
+    }
+
+    private void sendFundsBatch(Set<String> sourceAddresses, Map<String, Coin> amountsByTargetAddress, CompletableFuture<WithdrawFundsResult> futureResult)
+            throws InsufficientFundsException, AmountTooLowException {
+        final Collection<AddressEntry> sourceAddressEntries = getWithdrawableAddressEntries(sourceAddresses);
+        WithdrawBatchValidator.validate(amountsByTargetAddress, getTotalBalance(sourceAddressEntries));
+
+        final Wallet wallet = walletsSetup.getBtcWallet();
+        final Set<Address> sourceAddressSet = sourceAddressEntries.stream().map(AddressEntry::getAddress).collect(Collectors.toSet());
+        final Set<String> payoutTradeIds = getPayoutTradeIds(sourceAddressEntries);
+        try {
+            // Unsigned dry run with a source address as change, so that a batch rejected by coin selection or fee
+            // calculation does not take a fresh change address
+            final SendRequest dryRun = toBatchSendRequest(wallet, amountsByTargetAddress, sourceAddressSet, sourceAddressSet.iterator().next());
+            dryRun.signInputs = false;
+            wallet.completeTx(dryRun);
+            final Coin expectedFee = dryRun.tx.getFee();
+
+            final AddressEntry changeAddressEntry = btcWalletService.getFreshAddressEntry();
+            walletAddressIndex.invalidate();
+            final SendRequest sendRequest = toBatchSendRequest(wallet, amountsByTargetAddress, sourceAddressSet, changeAddressEntry.getAddress());
+            sendRequest.aesKey = btcWalletService.getAesKey();
+            final Wallet.SendResult sendResult = wallet.sendCoins(sendRequest);
+            Futures.addCallback(sendResult.broadcastComplete, toWithdrawCallback(futureResult, expectedFee, payoutTradeIds));
+        } catch (org.bitcoinj.core.InsufficientMoneyException e) {
+            throw new InsufficientFundsException(e.getMessage());
+        } catch (Wallet.DustySendRequested e) {
+            throw new AmountTooLowException(e.getMessage());
+        }
+    }
+
+    private SendRequest toBatchSendRequest(Wallet wallet, Map<String, Coin> amountsByTargetAddress, Set<Address> sourceAddresses, Address changeAddress) {
+        final NetworkParameters params = wallet.getParams();
+        final Transaction transaction = new Transaction(params);
+        amountsByTargetAddress.forEach((address, amount) -> transaction.addOutput(amount, Address.fromBase58(params, address)));
+        final SendRequest sendRequest = SendRequest.forTx(transaction);
+        sendRequest.feePerKb = feeService.getTxFeePerByte().multiply(1000);
+        sendRequest.ensureMinRequiredFee = true;
+        sendRequest.shuffleOutputs = false;
+        sendRequest.coinSelector = new BtcCoinSelector(sourceAddresses);
+        sendRequest.changeAddress = changeAddress;
+        return sendRequest;
+    }
+
+    /**
+     * Completes the future with the broadcast transaction. The fee is taken from the transaction, or from the expected
+     * fee when the transaction cannot tell, which is the case when inputs are not connected.
+     */
+    private FutureCallback<Transaction> toWithdrawCallback(CompletableFuture<WithdrawFundsResult> futureResult, @Nullable Coin expectedFee,
+                                                           Set<String> payoutTradeIds) {
+        return new FutureCallback<Transaction>() {
+            @Override
+            public void onSuccess(@javax.annotation.Nullable Transaction transaction) {
+                if (transaction == null) {
+                    log.error("onWithdraw transaction is null");
+                    futureResult.completeExceptionally(new IllegalStateException("Withdrawal transaction is null"));
+                    return;
+                }
+                log.debug("onWithdraw onSuccess tx ID:" + transaction.getHashAsString());
+                Coin fee = transaction.getFee();
+                if (null == fee)
+                    fee = expectedFee;
+                futureResult.complete(new WithdrawFundsResult(transaction.getHashAsString(), null == fee ? -1 : fee.value, transaction.getMessageSize()));
+                if (!payoutTradeIds.isEmpty())
+                    UserThread.execute(() -> closeWithdrawnTrades(payoutTradeIds));
+            }
+
+            @Override
+            public void onFailure(@NotNull Throwable t) {
+                log.error("onWithdraw onFailure", t);
+                futureResult.completeExceptionally(t);
+            }
+        };
+    }
+
+    private static Set<String> getPayoutTradeIds(Collection<AddressEntry> addressEntries) {
+        return addressEntries.stream()
+                .filter(addressEntry -> AddressEntry.Context.TRADE_PAYOUT.equals(addressEntry.getContext()))
+                .map(AddressEntry::getOfferId)
+                .collect(Collectors.toSet());
+    }
+
+    private Collection<AddressEntry> getWithdrawableAddressEntries(Set<String> sourceAddresses) {
+        if (sourceAddresses.isEmpty())
+            throw new ValidationException("List of source addresses must not be empty");
         // get all address entries
-        final List<AddressEntry> sourceAddressEntries = sourceAddresses.stream()
-                .filter(address -> null != address)
-                .map(address -> btcWalletService.getAddressEntryListAsImmutableList().stream().filter(addressEntry -> address.equals(addressEntry.getAddressString())).findFirst().orElse(null))
-                .filter(item -> null != item)
-                .collect(Collectors.toList());
+        Collection<AddressEntry> sourceAddressEntries = walletAddressIndex.resolve(sourceAddresses).values();
         // this filter matches all unauthorized address types
         Predicate<AddressEntry> filterNotAllowedAddressEntries = addressEntry -> !(AddressEntry.Context.AVAILABLE.equals(addressEntry.getContext())
                 || AddressEntry.Context.TRADE_PAYOUT.equals(addressEntry.getContext()));
-        // check if there are any unauthorized address types
+        // check if there are any unauthorized address types, the entry may have been moved to another context since the index was built
         if (sourceAddressEntries.stream().anyMatch(filterNotAllowedAddressEntries)) {
-            throw new ValidationException("Funds can be withdrawn only from addresses with context AVAILABLE and TRADE_PAYOUT");
+            walletAddressIndex.invalidate();
+            sourceAddressEntries = walletAddressIndex.resolve(sourceAddresses).values();
+            if (sourceAddressEntries.stream().anyMatch(filterNotAllowedAddressEntries)) {
+                throw new ValidationException("Funds can be withdrawn only from addresses with context AVAILABLE and TRADE_PAYOUT");
+            }
         }
+        return sourceAddressEntries;
+    }
+
+    private Coin getTotalBalance(Collection<AddressEntry> addressEntries) {
+        return addressEntries.stream()
+                .map(walletAddressIndex::getBalance)
+                .reduce(Coin.ZERO, Coin::add);
+    }
 
+    private WithdrawQuoteCache.Quote estimateWithdrawal(Set<String> sourceAddresses, Coin amountAsCoin, boolean feeExcluded, Coin totalAvailableAmountOfSelectedItems)
+            throws AddressEntryException, InsufficientFundsException, AmountTooLowException {
         Coin sendersAmount;
         // We do not know sendersAmount if senderPaysFee is true. We repeat fee calculation after first attempt if senderPaysFee is true.
         Transaction feeEstimationTransaction;
@@ -656,70 +973,34 @@ public class BisqProxy {
         sendersAmount = feeExcluded ? amountAsCoin.add(fee) : amountAsCoin;
         Coin receiverAmount = feeExcluded ? amountAsCoin : amountAsCoin.subtract(fee);
 
-        final Coin totalAvailableAmountOfSelectedItems = sourceAddressEntries.stream()
-                .map(address -> btcWalletService.getBalanceForAddress(address.getAddress()))
-                .reduce(Coin.ZERO, Coin::add);
-
         if (!sendersAmount.isPositive())
             throw new ValidationException("Senders amount must be positive");
-        if (!new BtcAddressValidator().validate(targetAddress).isValid)
-            throw new ValidationException("Invalid target address");
-        if (sourceAddresses.isEmpty())
-            throw new ValidationException("List of source addresses must not be empty");
         if (sendersAmount.compareTo(totalAvailableAmountOfSelectedItems) > 0)
             throw new InsufficientFundsException("Not enough funds in selected addresses");
-
-        if (receiverAmount.isPositive()) {
-            try {
-//                TODO return completable future
-                btcWalletService.sendFundsForMultipleAddresses(sourceAddresses, targetAddress, amountAsCoin, fee, null, null, new FutureCallback<Transaction>() {
-                    @Override
-                    public void onSuccess(@javax.annotation.Nullable Transaction transaction) {
-                        if (transaction != null) {
-                            log.debug("onWithdraw onSuccess tx ID:" + transaction.getHashAsString());
-                        } else {
-                            log.error("onWithdraw transaction is null");
-                        }
-
-                        List<Trade> trades = new ArrayList<>(tradeManager.getTradableList());
-                        trades.stream()
-                                .filter(Trade::isPayoutPublished)
-                                .forEach(trade -> btcWalletService.getAddressEntry(trade.getId(), AddressEntry.Context.TRADE_PAYOUT)
-                                        .ifPresent(addressEntry -> {
-                                            if (btcWalletService.getBalanceForAddress(addressEntry.getAddress()).isZero())
-                                                tradeManager.addTradeToClosedTrades(trade);
-                                        }));
-                    }
-
-                    @Override
-                    public void onFailure(@NotNull Throwable t) {
-                        log.error("onWithdraw onFailure");
-                    }
-                });
-            } catch (org.bitcoinj.core.InsufficientMoneyException e) {
-                throw new InsufficientFundsException(e.getMessage());
-            }
-        } else {
+        if (!receiverAmount.isPositive())
             throw new AmountTooLowException(Res.get("portfolio.pending.step5_buyer.amountTooLow"));
-        }
+        return new WithdrawQuoteCache.Quote(sourceAddresses, amountAsCoin, feeExcluded, fee, sendersAmount, receiverAmount, totalAvailableAmountOfSelectedItems);
+    }
+
+    /**
+     * Moves trades to closed trades once their payout address has been emptied by a withdrawal.
+     */
+    private void closeWithdrawnTrades(Set<String> tradeIds) {
+        walletAddressIndex.getAddressEntries(AddressEntry.Context.TRADE_PAYOUT, tradeIds).stream()
+                .filter(addressEntry -> btcWalletService.getBalanceForAddress(addressEntry.getAddress()).isZero())
+                .forEach(addressEntry -> tradeManager.getTradeById(addressEntry.getOfferId())
+                        .filter(Trade::isPayoutPublished)
+                        .ifPresent(tradeManager::addTradeToClosedTrades));
     }
 
     private Stream<AddressEntry> getLockedFundsAddressEntryStream() {
-        return tradeManager.getLockedTradesStream()
-                .map(trade -> {
-                    final Optional<AddressEntry> addressEntryOptional = btcWalletService.getAddressEntry(trade.getId(), AddressEntry.Context.MULTI_SIG);
-                    return addressEntryOptional.isPresent() ? addressEntryOptional.get() : null;
-                })
-                .filter(e -> e != null);
+        final List<String> tradeIds = tradeManager.getLockedTradesStream().map(Trade::getId).collect(toList());
+        return walletAddressIndex.getAddressEntries(AddressEntry.Context.MULTI_SIG, tradeIds).stream();
     }
 
     private Stream<AddressEntry> getReservedFundsAddressEntryStream() {
-        return openOfferManager.getObservableList().stream()
-                .map(openOffer -> {
-                    Optional<AddressEntry> addressEntryOptional = btcWalletService.getAddressEntry(openOffer.getId(), AddressEntry.Context.RESERVED_FOR_TRADE);
-                    return addressEntryOptional.isPresent() ? addressEntryOptional.get() : null;
-                })
-                .filter(e -> e != null);
+        final List<String> offerIds = openOfferManager.getObservableList().stream().map(OpenOffer::getId).collect(toList());
+        return walletAddressIndex.getAddressEntries(AddressEntry.Context.RESERVED_FOR_TRADE, offerIds).stream();
     }
 
     public CompletableFuture<Void> paymentStarted(String tradeId) {
@@ -782,10 +1063,51 @@ public class BisqProxy {
         if (!Trade.State.SELLER_SAW_ARRIVED_PAYOUT_TX_PUBLISHED_MSG.equals(tradeState) && !Trade.State.BUYER_RECEIVED_PAYOUT_TX_PUBLISHED_MSG.equals(tradeState))
             throw new ValidationException("Trade is not in the correct state to transfer funds out: " + tradeState);
         btcWalletService.swapTradeEntryToAvailableEntry(trade.getId(), AddressEntry.Context.TRADE_PAYOUT);
+        walletAddressIndex.invalidate();
         // TODO do we need to handle this ui stuff? --> handleTradeCompleted();
         tradeManager.addTradeToClosedTrades(trade);
     }
 
+    public List<TradeRule> getTradeRules() {
+        return tradeRuleEngine.getRules();
+    }
+
+    public TradeRule getTradeRule(String id) {
+        final TradeRule rule = tradeRuleEngine.getRule(id);
+        if (null == rule)
+            throw new NotFoundException("Trade rule not found: " + id);
+        return rule;
+    }
+
+    public TradeRule addTradeRule(TradeRule rule) {
+        return tradeRuleEngine.addRule(rule);
+    }
+
+    public void removeTradeRule(String id) {
+        if (!tradeRuleEngine.removeRule(id))
+            throw new NotFoundException("Trade rule not found: " + id);
+    }
+
+    private CompletableFuture<Void> executeTradeRuleAction(TradeRule.Action action, String tradeId) {
+        switch (action) {
+            case PAYMENT_STARTED:
+                return paymentStarted(tradeId);
+            case PAYMENT_RECEIVED:
+                return paymentReceived(tradeId);
+            case MOVE_FUNDS_TO_BISQ_WALLET:
+                final CompletableFuture<Void> futureResult = new CompletableFuture<>();
+                try {
+                    moveFundsToBisqWallet(tradeId);
+                    futureResult.complete(null);
+                } catch (Exception e) {
+                    futureResult.completeExceptionally(e);
+                }
+                return futureResult;
+            default:
+                throw new IllegalArgumentException("Unsupported trade rule action: " + action);
+        }
+    }
+
     public void registerArbitrator(List<String> languageCodes) {
 //        TODO most of this code is dupplication of ArbitratorRegistrationViewModel.onRegister
         final String privKeyString = useDevPrivilegeKeys ? DevEnv.DEV_PRIVILEGE_PRIV_KEY : null;
@@ -798,6 +1120,7 @@ public class BisqProxy {
             throw new RuntimeException("Missing registration key");
         }
         AddressEntry arbitratorDepositAddressEntry = btcWalletService.getArbitratorAddressEntry();
+        walletAddressIndex.invalidate();
         String registrationSignature = arbitratorManager.signStorageSignaturePubKey(registrationKey);
         Arbitrator arbitrator = new Arbitrator(
                 p2PService.getAddress(),
@@ -856,7 +1179,8 @@ public class BisqProxy {
 
     public WalletAddress getOrCreateAvailableUnusedWalletAddresses() {
         final AddressEntry entry = btcWalletService.getFreshAddressEntry();
-        return convertAddressEntryToWalletAddress(entry, btcWalletService);
+        walletAddressIndex.invalidate();
+        return convertAddressEntryToWalletAddress(entry);
     }
 
     public P2PNetworkStatus getP2PNetworkStatus() {
@@ -974,10 +1298,10 @@ public class BisqProxy {
     }
 
     public AuthResult authenticate(String password) {
-        final TokenRegistry tokenRegistry = injector.getInstance(TokenRegistry.class);
+        final TokenService tokenService = injector.getInstance(TokenService.class);
         final boolean isPasswordValid = btcWalletService.isWalletReady() && btcWalletService.isEncrypted() && isWalletPasswordValid(password);
         if (isPasswordValid) {
-            return new AuthResult(tokenRegistry.generateToken());
+            return new AuthResult(tokenService.generateToken());
         }
         throw new UnauthorizedException();
     }
@@ -1015,9 +1339,9 @@ public class BisqProxy {
         if (null != newPassword && newPassword.length() > 0) {
             final Tuple2<KeyParameter, KeyCrypterScrypt> aesKeyAndScrypt = getAESKeyAndScrypt(newPassword);
             walletsManager.encryptWallets(aesKeyAndScrypt.second, aesKeyAndScrypt.first);
-            final TokenRegistry tokenRegistry = injector.getInstance(TokenRegistry.class);
-            tokenRegistry.clear();
-            return new AuthResult(tokenRegistry.generateToken());
+            final TokenService tokenService = injector.getInstance(TokenService.class);
+            tokenService.clear();
+            return new AuthResult(tokenService.generateToken());
         }
         return null;
     }
@@ -1163,15 +1487,14 @@ public class BisqProxy {
     }
 
     @NotNull
-    private static WalletAddress convertAddressEntryToWalletAddress(AddressEntry entry, BtcWalletService btcWalletService) {
+    private WalletAddress convertAddressEntryToWalletAddress(AddressEntry entry) {
         final Coin balance;
         if (AddressEntry.Context.MULTI_SIG.equals(entry.getContext())) {
             balance = entry.getCoinLockedInMultiSig();
         } else {
-            balance = btcWalletService.getBalanceForAddress(entry.getAddress());
+            balance = walletAddressIndex.getBalance(entry);
         }
-        final TransactionConfidence confidence = btcWalletService.getConfidenceForAddress(entry.getAddress());
-        final int confirmations = null == confidence ? 0 : confidence.getDepthInBlocks();
+        final int confirmations = walletAddressIndex.getConfirmations(entry);
         return new WalletAddress(entry.getAddressString(), balance.getValue(), confirmations, entry.getContext(), entry.getOfferId());
     }
 
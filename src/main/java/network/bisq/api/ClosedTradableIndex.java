@@ -0,0 +1,186 @@
+package network.bisq.api;
+
+import bisq.core.trade.Tradable;
+import bisq.core.trade.closed.ClosedTradableManager;
+import javafx.collections.ListChangeListener;
+import network.bisq.api.model.ClosedTradableConverter;
+import network.bisq.api.model.ClosedTradableDetails;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converted closed tradables ordered by date, newest first.
+ * <p>
+ * Conversion resolves localized status strings, prices and volumes, so every tradable is converted once when it is
+ * closed, and the first listing converts the tradables closed before. Pages are read in order from the date range of
+ * the index, without sorting or converting anything.
+ */
+public class ClosedTradableIndex {
+
+    private static final String SCOPE = "-date";
+    private static final Comparator<Key> ORDER = Comparator.comparingLong((Key key) -> key.date).reversed().thenComparing(key -> key.id);
+
+    private final ClosedTradableManager closedTradableManager;
+    private final ClosedTradableConverter closedTradableConverter;
+    private final NavigableMap<Key, ClosedTradableDetails> detailsByDate = new ConcurrentSkipListMap<>(ORDER);
+    private final Map<String, Key> keysById = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    @Nullable
+    private volatile Total lastTotal;
+    private volatile boolean loaded;
+
+    public ClosedTradableIndex(ClosedTradableManager closedTradableManager, ClosedTradableConverter closedTradableConverter) {
+        this.closedTradableManager = closedTradableManager;
+        this.closedTradableConverter = closedTradableConverter;
+
+        closedTradableManager.getClosedTradables().addListener((ListChangeListener<Tradable>) change -> apply(change));
+    }
+
+    /**
+     * Returns closed tradables matching all of the given criteria, newest first. Null criteria are ignored. Dates are
+     * epoch millis, from inclusive and to exclusive. Currency code and status are compared ignoring case, status
+     * against the status shown in the listing.
+     * <p>
+     * A page seeks to the cursor and reads until it is full. Counting the total of a filtered listing takes a pass over
+     * the date range, so it is cached until the index changes or other criteria are requested.
+     */
+    public Page<ClosedTradableDetails> find(@Nullable Long from, @Nullable Long to, @Nullable String currencyCode, @Nullable String status,
+                                            @Nullable String cursor, @Nullable Integer limit) {
+        if (!loaded)
+            load();
+        final NavigableMap<Key, ClosedTradableDetails> range = getRange(from, to);
+        final int total = getTotal(range, from, to, currencyCode, status);
+        final NavigableMap<Key, ClosedTradableDetails> remaining = null == cursor ? range : range.tailMap(toKey(PageCursor.decode(cursor, SCOPE)), false);
+
+        final int pageSize = null == limit ? Integer.MAX_VALUE : limit;
+        final List<ClosedTradableDetails> items = new ArrayList<>();
+        String nextCursor = null;
+        for (ClosedTradableDetails details : remaining.values()) {
+            if (!matches(details, currencyCode, status))
+                continue;
+            if (items.size() == pageSize) {
+                final ClosedTradableDetails last = items.get(items.size() - 1);
+                nextCursor = new PageCursor(SCOPE, last.date, last.id).encode();
+                break;
+            }
+            items.add(details);
+        }
+        return new Page<>(items, total, nextCursor);
+    }
+
+    /**
+     * Live view of the closed tradables in the given date range, oldest first. Dates are epoch millis, from inclusive
+     * and to exclusive. Iterating the view does not copy the index.
+     */
+    public Iterable<ClosedTradableDetails> getHistory(@Nullable Long from, @Nullable Long to) {
+        if (!loaded)
+            load();
+        return getRange(from, to).descendingMap().values();
+    }
+
+    private int getTotal(NavigableMap<Key, ClosedTradableDetails> range, @Nullable Long from, @Nullable Long to,
+                         @Nullable String currencyCode, @Nullable String status) {
+        if (null == from && null == to && null == currencyCode && null == status)
+            return keysById.size();
+        final String criteria = from + "\n" + to + "\n" + (null == currencyCode ? null : currencyCode.toUpperCase())
+                + "\n" + (null == status ? null : status.toUpperCase());
+        // read before counting, so that a count racing with a change is not taken as current
+        final long currentVersion = version.get();
+        final Total cached = lastTotal;
+        if (null != cached && cached.version == currentVersion && cached.criteria.equals(criteria))
+            return cached.count;
+        int count = 0;
+        for (ClosedTradableDetails details : range.values())
+            if (matches(details, currencyCode, status))
+                count++;
+        lastTotal = new Total(currentVersion, criteria, count);
+        return count;
+    }
+
+    private static boolean matches(ClosedTradableDetails details, @Nullable String currencyCode, @Nullable String status) {
+        return (null == currencyCode || currencyCode.equalsIgnoreCase(details.currencyCode))
+                && (null == status || status.equalsIgnoreCase(details.status));
+    }
+
+    private NavigableMap<Key, ClosedTradableDetails> getRange(@Nullable Long from, @Nullable Long to) {
+        // newest first, so entries before (to - 1, "") are newer than to and entries from (from - 1, "") are older than from
+        if (null != from && null != to && from >= to)
+            return Collections.emptyNavigableMap();
+        NavigableMap<Key, ClosedTradableDetails> range = detailsByDate;
+        if (null != to)
+            range = range.tailMap(new Key(to - 1, ""), true);
+        if (null != from)
+            range = range.headMap(new Key(from - 1, ""), false);
+        return range;
+    }
+
+    /**
+     * Changes are applied whether or not the index is loaded yet. Both run under the lock of the index, so a change
+     * either is in the copy taken by load or is applied after it, and no tradable closed while loading is lost.
+     */
+    private synchronized void apply(ListChangeListener.Change<? extends Tradable> change) {
+        while (change.next()) {
+            change.getRemoved().forEach(tradable -> remove(tradable.getId()));
+            change.getAddedSubList().forEach(this::add);
+        }
+    }
+
+    private synchronized void load() {
+        if (loaded)
+            return;
+        new ArrayList<>(closedTradableManager.getClosedTradables()).forEach(this::add);
+        loaded = true;
+    }
+
+    private synchronized void add(Tradable tradable) {
+        remove(tradable.getId());
+        version.incrementAndGet();
+        final ClosedTradableDetails details = closedTradableConverter.convert(tradable);
+        final Key key = new Key(details.date, details.id);
+        detailsByDate.put(key, details);
+        keysById.put(details.id, key);
+    }
+
+    private synchronized void remove(String id) {
+        final Key key = keysById.remove(id);
+        if (null != key) {
+            detailsByDate.remove(key);
+            version.incrementAndGet();
+        }
+    }
+
+    private static Key toKey(PageCursor cursor) {
+        return new Key(cursor.getSortKey(), cursor.getId());
+    }
+
+    private static class Total {
+        private final long version;
+        private final String criteria;
+        private final int count;
+
+        private Total(long version, String criteria, int count) {
+            this.version = version;
+            this.criteria = criteria;
+            this.count = count;
+        }
+    }
+
+    private static class Key {
+        private final long date;
+        private final String id;
+
+        private Key(long date, String id) {
+            this.date = date;
+            this.id = id;
+        }
+    }
+}
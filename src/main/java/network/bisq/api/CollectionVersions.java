@@ -0,0 +1,95 @@
+package network.bisq.api;
+
+import bisq.core.provider.price.PriceFeedService;
+import bisq.core.trade.Trade;
+import bisq.core.trade.TradeManager;
+import bisq.core.trade.closed.ClosedTradableManager;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing versions of the collections exposed by the API, used as entity tags by list endpoints.
+ * <p>
+ * Versions are bumped by the underlying Bisq observables. They are prefixed with an epoch so that versions handed out
+ * before a restart never match again. The offers version is taken from the offer book index, which also follows offer
+ * state changes. Market based offers are priced from the market price feed, so the offers version also carries the
+ * update counter of the price feed.
+ */
+public class CollectionVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong trades = new AtomicLong();
+    private final AtomicLong closedTradables = new AtomicLong();
+    private final AtomicLong paymentAccounts = new AtomicLong();
+    private final OfferBookIndex offerBookIndex;
+    private final PriceFeedService priceFeedService;
+    private final ChangeListener<Object> tradeChangeListener = (observable, oldValue, newValue) -> trades.incrementAndGet();
+
+    public CollectionVersions(OfferBookIndex offerBookIndex, PriceFeedService priceFeedService, TradeManager tradeManager,
+                              ClosedTradableManager closedTradableManager) {
+        this.offerBookIndex = offerBookIndex;
+        this.priceFeedService = priceFeedService;
+
+        final ObservableList<Trade> tradableList = tradeManager.getTradableList();
+        if (null != tradableList) {
+            tradableList.forEach(this::addTradeListener);
+            tradableList.addListener((ListChangeListener<Trade>) change -> {
+                trades.incrementAndGet();
+                while (change.next()) {
+                    change.getRemoved().forEach(this::removeTradeListener);
+                    change.getAddedSubList().forEach(this::addTradeListener);
+                }
+            });
+        }
+
+        closedTradableManager.getClosedTradables().addListener((ListChangeListener<Object>) change -> closedTradables.incrementAndGet());
+    }
+
+    public String getOffersVersion() {
+        return epoch + "-" + offerBookIndex.getVersion() + "-" + priceFeedService.updateCounterProperty().get();
+    }
+
+    public String getTradesVersion() {
+        return toVersion(trades);
+    }
+
+    public String getClosedTradablesVersion() {
+        return toVersion(closedTradables);
+    }
+
+    public String getPaymentAccountsVersion() {
+        return toVersion(paymentAccounts);
+    }
+
+    /**
+     * Version of collections that are built once at startup, like markets and currencies.
+     */
+    public String getStaticVersion() {
+        return epoch;
+    }
+
+    public void paymentAccountsChanged() {
+        paymentAccounts.incrementAndGet();
+    }
+
+    private String toVersion(AtomicLong counter) {
+        return epoch + "-" + counter.get();
+    }
+
+    private void addTradeListener(Trade trade) {
+        trade.stateProperty().addListener(tradeChangeListener);
+        trade.disputeStateProperty().addListener(tradeChangeListener);
+        trade.tradePeriodStateProperty().addListener(tradeChangeListener);
+        trade.errorMessageProperty().addListener(tradeChangeListener);
+    }
+
+    private void removeTradeListener(Trade trade) {
+        trade.stateProperty().removeListener(tradeChangeListener);
+        trade.disputeStateProperty().removeListener(tradeChangeListener);
+        trade.tradePeriodStateProperty().removeListener(tradeChangeListener);
+        trade.errorMessageProperty().removeListener(tradeChangeListener);
+    }
+}
@@ -0,0 +1,171 @@
+package network.bisq.api;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sequenced log of the most recent events of a single source with support for resuming subscriptions.
+ * <p>
+ * Event ids consist of an epoch (journal creation time) and a sequence number, so that ids issued before a restart
+ * are never mistaken for current ones. Every subscription has its own bounded queue of pending events, drained in
+ * order by a thread of a shared pool, so that a slow consumer delays neither the producer nor other subscribers. A
+ * subscription whose queue overflows is dropped, the consumer can resume from its last event id.
+ */
+@Slf4j
+public class EventJournal<T> {
+
+    public static final String SNAPSHOT = "snapshot";
+
+    private static final ExecutorService DISPATCHER = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("event-delivery-%d")
+            .setDaemon(true)
+            .build());
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final String name;
+    private final int capacity;
+    private final Deque<Event<T>> events = new ArrayDeque<>();
+    private final Set<Subscription> subscriptions = new CopyOnWriteArraySet<>();
+    private long sequence;
+
+    public EventJournal(String name, int capacity) {
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    public synchronized long append(String name, T data) {
+        sequence++;
+        final Event<T> event = new Event<>(toEventId(sequence), sequence, name, data);
+        events.addLast(event);
+        if (events.size() > capacity)
+            events.removeFirst();
+        subscriptions.forEach(subscription -> subscription.offer(event));
+        return sequence;
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Registers the listener. Missed events after lastEventId are replayed if still in the journal, otherwise
+     * the listener receives a snapshot event carrying the current sequence number first.
+     */
+    public synchronized Runnable subscribe(@Nullable String lastEventId, Supplier<T> snapshot, Listener<T> listener) {
+        final List<Event<T>> replay = new ArrayList<>();
+        final Long lastSequence = toSequence(lastEventId);
+        if (null != lastSequence && canResumeFrom(lastSequence)) {
+            for (Event<T> event : events)
+                if (event.getSequence() > lastSequence)
+                    replay.add(event);
+        } else {
+            replay.add(new Event<>(toEventId(sequence), sequence, SNAPSHOT, snapshot.get()));
+        }
+        final Subscription subscription = new Subscription(listener);
+        subscriptions.add(subscription);
+        replay.forEach(subscription::offer);
+        return subscription::cancel;
+    }
+
+    private boolean canResumeFrom(long lastSequence) {
+        if (lastSequence > sequence)
+            return false;
+        final long oldestSequence = events.isEmpty() ? sequence + 1 : events.getFirst().getSequence();
+        return lastSequence >= oldestSequence - 1;
+    }
+
+    private class Subscription {
+        private final Listener<T> listener;
+        private final Queue<Event<T>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        private Subscription(Listener<T> listener) {
+            this.listener = listener;
+        }
+
+        private void offer(Event<T> event) {
+            if (cancelled)
+                return;
+            if (size.incrementAndGet() > capacity) {
+                log.debug("Removing {} event listener after {} undelivered events", name, capacity);
+                cancel();
+                return;
+            }
+            pending.add(event);
+            if (draining.compareAndSet(false, true))
+                DISPATCHER.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Event<T> event;
+                while (!cancelled && null != (event = pending.poll())) {
+                    size.decrementAndGet();
+                    try {
+                        listener.onEvent(event);
+                    } catch (Exception e) {
+                        log.debug("Removing {} event listener after failed delivery: {}", name, e.toString());
+                        cancel();
+                    }
+                }
+                draining.set(false);
+                // an event offered after the last poll but before the reset would otherwise wait for the next one
+                if (cancelled || pending.isEmpty() || !draining.compareAndSet(false, true))
+                    return;
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            pending.clear();
+        }
+    }
+
+    private String toEventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    @Nullable
+    private Long toSequence(@Nullable String eventId) {
+        if (null == eventId || !eventId.startsWith(epoch + "-"))
+            return null;
+        try {
+            return Long.parseLong(eventId.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public interface Listener<T> {
+        void onEvent(Event<T> event) throws Exception;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Event<T> {
+        private final String id;
+        private final long sequence;
+        private final String name;
+        private final T data;
+    }
+}
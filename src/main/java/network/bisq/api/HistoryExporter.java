@@ -0,0 +1,115 @@
+package network.bisq.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import lombok.Getter;
+import network.bisq.api.model.ClosedTradableDetails;
+import network.bisq.api.model.TradeDetails;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes history rows one at a time as newline delimited JSON or CSV, so that exports do not hold the complete history
+ * in memory. The output is flushed after the first row and then every FLUSH_INTERVAL rows.
+ */
+public class HistoryExporter {
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    private static final int FLUSH_INTERVAL = 100;
+
+    public static final List<Column<ClosedTradableDetails>> CLOSED_TRADABLE_COLUMNS = ImmutableList.of(
+            new Column<>("id", details -> details.id),
+            new Column<>("date", details -> details.date),
+            new Column<>("direction", details -> details.direction),
+            new Column<>("currencyCode", details -> details.currencyCode),
+            new Column<>("amount", details -> details.amount),
+            new Column<>("price", details -> details.price),
+            new Column<>("volume", details -> details.volume),
+            new Column<>("status", details -> details.status)
+    );
+
+    public static final List<Column<TradeDetails>> TRADE_COLUMNS = ImmutableList.of(
+            new Column<>("id", details -> details.id),
+            new Column<>("takeOfferDate", details -> details.takeOfferDate),
+            new Column<>("offerDirection", details -> null == details.offer ? null : details.offer.direction),
+            new Column<>("currencyCode", details -> null == details.offer ? null : details.offer.currencyCode),
+            new Column<>("tradeAmount", details -> details.tradeAmount),
+            new Column<>("tradePrice", details -> details.tradePrice),
+            new Column<>("txFee", details -> details.txFee),
+            new Column<>("takerFee", details -> details.takerFee),
+            new Column<>("state", details -> details.state),
+            new Column<>("disputeState", details -> details.disputeState),
+            new Column<>("tradePeriodState", details -> details.tradePeriodState),
+            new Column<>("depositTxId", details -> details.depositTxId),
+            new Column<>("payoutTxId", details -> details.payoutTxId)
+    );
+
+    private final ObjectMapper objectMapper;
+
+    public HistoryExporter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the rows in the given format. NDJSON rows are the complete JSON models, CSV rows hold the given columns
+     * below a header line.
+     */
+    public <T> void write(Iterable<T> rows, Format format, List<Column<T>> columns, OutputStream outputStream) throws IOException {
+        if (Format.CSV == format)
+            writeLine(outputStream, columns.stream().map(column -> toCsvField(column.name)).toArray(String[]::new));
+        int count = 0;
+        for (T row : rows) {
+            if (Format.CSV == format) {
+                writeLine(outputStream, columns.stream().map(column -> toCsvField(column.value.apply(row))).toArray(String[]::new));
+            } else {
+                outputStream.write(objectMapper.writeValueAsBytes(row));
+                outputStream.write('\n');
+            }
+            if (0 == count++ % FLUSH_INTERVAL)
+                outputStream.flush();
+        }
+        outputStream.flush();
+    }
+
+    static String toCsvField(Object value) {
+        if (null == value)
+            return "";
+        final String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0)
+            return text;
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeLine(OutputStream outputStream, String[] fields) throws IOException {
+        outputStream.write((String.join(",", fields) + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Getter
+    public enum Format {
+        NDJSON(NDJSON_MEDIA_TYPE, "ndjson"),
+        CSV(CSV_MEDIA_TYPE, "csv");
+
+        private final String mediaType;
+        private final String fileExtension;
+
+        Format(String mediaType, String fileExtension) {
+            this.mediaType = mediaType;
+            this.fileExtension = fileExtension;
+        }
+    }
+
+    public static class Column<T> {
+        private final String name;
+        private final Function<T, Object> value;
+
+        public Column(String name, Function<T, Object> value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
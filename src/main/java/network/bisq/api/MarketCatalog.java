@@ -0,0 +1,97 @@
+package network.bisq.api;
+
+import bisq.core.locale.CurrencyUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import io.dropwizard.jackson.Jackson;
+import lombok.Getter;
+import network.bisq.api.model.Currency;
+import network.bisq.api.model.CurrencyList;
+import network.bisq.api.model.Market;
+import network.bisq.api.model.MarketList;
+
+import javax.annotation.Nullable;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable catalog of the supported currencies and markets, built once at startup.
+ * <p>
+ * Markets are keyed by pair, currencies by code. The list models are serialized once as well, so list
+ * endpoints can return the bytes as they are.
+ */
+public class MarketCatalog {
+
+    private static final String BTC = "BTC";
+    private static final String FIAT = "fiat";
+
+    @Getter
+    private final MarketList marketList;
+    @Getter
+    private final CurrencyList currencyList;
+    @Getter
+    private final byte[] marketListJson;
+    @Getter
+    private final byte[] currencyListJson;
+    private final ImmutableMap<String, Market> marketsByPair;
+    private final ImmutableMap<String, Currency> currenciesByCode;
+
+    @Inject
+    public MarketCatalog() {
+        final CurrencyList currencies = new CurrencyList();
+        CurrencyUtil.getAllSortedCryptoCurrencies().forEach(cryptoCurrency -> currencies.add(cryptoCurrency.getCode(), cryptoCurrency.getName(), "crypto"));
+        CurrencyUtil.getAllSortedFiatCurrencies().forEach(fiatCurrency -> currencies.add(fiatCurrency.getCurrency().getCurrencyCode(), fiatCurrency.getName(), FIAT));
+        currencies.currencies.sort(Comparator.comparing((Currency currency) -> currency.name));
+        currencies.currencies = ImmutableList.copyOf(currencies.currencies);
+        this.currencyList = currencies;
+
+        final ImmutableList.Builder<Market> markets = ImmutableList.builder();
+        CurrencyUtil.getAllSortedCryptoCurrencies().stream()
+                .filter(cryptoCurrency -> !BTC.equals(cryptoCurrency.getCode()))
+                .forEach(cryptoCurrency -> markets.add(new Market(cryptoCurrency.getCode(), BTC)));
+        CurrencyUtil.getAllSortedFiatCurrencies()
+                .forEach(fiatCurrency -> markets.add(new Market(BTC, fiatCurrency.getCode())));
+        this.marketList = new MarketList();
+        this.marketList.markets = markets.build();
+
+        final Map<String, Market> byPair = new HashMap<>();
+        marketList.markets.forEach(market -> byPair.putIfAbsent(market.getPair(), market));
+        this.marketsByPair = ImmutableMap.copyOf(byPair);
+
+        final Map<String, Currency> byCode = new HashMap<>();
+        currencyList.currencies.forEach(currency -> byCode.putIfAbsent(currency.code, currency));
+        this.currenciesByCode = ImmutableMap.copyOf(byCode);
+
+        final ObjectMapper objectMapper = Jackson.newObjectMapper();
+        try {
+            this.marketListJson = objectMapper.writeValueAsBytes(marketList);
+            this.currencyListJson = objectMapper.writeValueAsBytes(currencyList);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nullable
+    public Market getMarket(String marketPair) {
+        return null == marketPair ? null : marketsByPair.get(marketPair);
+    }
+
+    public boolean isValidMarket(String marketPair) {
+        return null != getMarket(marketPair);
+    }
+
+    @Nullable
+    public Currency getCurrency(String code) {
+        return null == code ? null : currenciesByCode.get(code.toUpperCase());
+    }
+
+    public boolean isFiatCurrency(String code) {
+        final Currency currency = getCurrency(code);
+        return null != currency && FIAT.equals(currency.type);
+    }
+}
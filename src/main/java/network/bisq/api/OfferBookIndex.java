@@ -0,0 +1,198 @@
+package network.bisq.api;
+
+import bisq.core.locale.CurrencyUtil;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
+import bisq.core.offer.OfferPayload;
+import javafx.beans.value.ChangeListener;
+import network.bisq.api.model.OfferList;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of the offer book maintained incrementally from OfferBookService add/remove events.
+ * <p>
+ * Offers are indexed by id and by market pair, direction and payment method so that lookups do not require
+ * scanning the whole book. Every change is also recorded in an event journal which backs the offer book stream.
+ * <p>
+ * OfferBookService hands out a different Offer instance with every callback, so state listeners are attached to the
+ * instance held by the index and removed from that same instance.
+ */
+public class OfferBookIndex {
+
+    public static final String ADDED = "added";
+    public static final String REMOVED = "removed";
+    private static final String BTC = "BTC";
+    private static final int JOURNAL_CAPACITY = 10000;
+
+    private final Map<String, Offer> offersById = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> idsByMarketPair = new ConcurrentHashMap<>();
+    private final Map<OfferPayload.Direction, Set<String>> idsByDirection = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> idsByPaymentMethod = new ConcurrentHashMap<>();
+    private final EventJournal<Object> journal = new EventJournal<>("offer-book", JOURNAL_CAPACITY);
+    private final OfferDetailCache offerDetailCache;
+    private final AtomicLong version = new AtomicLong();
+    private final ChangeListener<Offer.State> stateListener = (observable, oldValue, newValue) -> version.incrementAndGet();
+
+    public OfferBookIndex(OfferBookService offerBookService, OfferDetailCache offerDetailCache) {
+        this.offerDetailCache = offerDetailCache;
+        offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                add(offer);
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                remove(offer);
+            }
+        });
+        offerBookService.getOffers().forEach(this::add);
+    }
+
+    /**
+     * Market pair in the same notation as used by MarketList, i.e. XMR_BTC for altcoins and BTC_EUR for fiat.
+     */
+    public static String getMarketPair(Offer offer) {
+        final OfferPayload offerPayload = offer.getOfferPayload();
+        final String baseCurrencyCode = offerPayload.getBaseCurrencyCode();
+        final String currencyCode = BTC.equals(baseCurrencyCode) ? offerPayload.getCounterCurrencyCode() : baseCurrencyCode;
+        return CurrencyUtil.isFiatCurrency(currencyCode) ? BTC + "_" + currencyCode : currencyCode + "_" + BTC;
+    }
+
+    @Nullable
+    public Offer getOffer(String offerId) {
+        return null == offerId ? null : offersById.get(offerId);
+    }
+
+    public List<Offer> getOffers() {
+        return new ArrayList<>(offersById.values());
+    }
+
+    public int size() {
+        return offersById.size();
+    }
+
+    /**
+     * Incremented whenever an offer is added or removed or an offer held by the index changes its state.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns offers matching all of the given criteria. Null criteria are ignored. Candidates are taken from the most
+     * selective secondary index so the cost depends on the number of matching offers, not on the size of the book.
+     */
+    public List<Offer> find(@Nullable String marketPair, @Nullable OfferPayload.Direction direction, @Nullable String paymentMethodId) {
+        final List<Set<String>> criteria = new ArrayList<>();
+        if (null != marketPair)
+            criteria.add(getIds(idsByMarketPair, marketPair.toUpperCase()));
+        if (null != direction)
+            criteria.add(getIds(idsByDirection, direction));
+        if (null != paymentMethodId)
+            criteria.add(getIds(idsByPaymentMethod, paymentMethodId));
+        if (criteria.isEmpty())
+            return getOffers();
+
+        Set<String> smallest = criteria.get(0);
+        for (Set<String> ids : criteria)
+            if (ids.size() < smallest.size())
+                smallest = ids;
+
+        final List<Offer> result = new ArrayList<>(smallest.size());
+        for (String id : smallest) {
+            final Offer offer = offersById.get(id);
+            if (null == offer)
+                continue;
+            if (null != marketPair && !marketPair.equalsIgnoreCase(getMarketPair(offer)))
+                continue;
+            if (null != direction && direction != offer.getDirection())
+                continue;
+            if (null != paymentMethodId && !paymentMethodId.equals(offer.getOfferPayload().getPaymentMethodId()))
+                continue;
+            result.add(offer);
+        }
+        return result;
+    }
+
+    /**
+     * Subscribes to offer book changes. The listener receives added and removed events. When lastEventId is unknown
+     * or too old, a snapshot event with the complete book is delivered first.
+     */
+    public synchronized Runnable subscribe(@Nullable String lastEventId, EventJournal.Listener<Object> listener) {
+        return journal.subscribe(lastEventId, this::getSnapshot, listener);
+    }
+
+    private OfferList getSnapshot() {
+        final OfferList offerList = new OfferList();
+        offerList.offers = offersById.values().stream().map(offerDetailCache::getDetail).collect(Collectors.toList());
+        offerList.total = offerList.offers.size();
+        return offerList;
+    }
+
+    private synchronized void add(Offer offer) {
+        final String id = offer.getId();
+        final Offer previous = offersById.put(id, offer);
+        if (null != previous) {
+            unindex(previous);
+            previous.stateProperty().removeListener(stateListener);
+        }
+        index(offer);
+        offer.stateProperty().addListener(stateListener);
+        version.incrementAndGet();
+        journal.append(ADDED, offerDetailCache.getDetail(offer));
+    }
+
+    private synchronized void remove(Offer offer) {
+        final Offer removed = offersById.remove(offer.getId());
+        if (null != removed) {
+            unindex(removed);
+            removed.stateProperty().removeListener(stateListener);
+            version.incrementAndGet();
+            offerDetailCache.invalidate(removed.getId());
+            journal.append(REMOVED, Collections.singletonMap("id", removed.getId()));
+        }
+    }
+
+    private void index(Offer offer) {
+        final String id = offer.getId();
+        addId(idsByMarketPair, getMarketPair(offer), id);
+        addId(idsByDirection, offer.getDirection(), id);
+        addId(idsByPaymentMethod, offer.getOfferPayload().getPaymentMethodId(), id);
+    }
+
+    private void unindex(Offer offer) {
+        final String id = offer.getId();
+        removeId(idsByMarketPair, getMarketPair(offer), id);
+        removeId(idsByDirection, offer.getDirection(), id);
+        removeId(idsByPaymentMethod, offer.getOfferPayload().getPaymentMethodId(), id);
+    }
+
+    private static <K> Set<String> getIds(Map<K, Set<String>> index, K key) {
+        final Set<String> ids = index.get(key);
+        return null == ids ? Collections.emptySet() : ids;
+    }
+
+    private static <K> void addId(Map<K, Set<String>> index, K key, String id) {
+        if (null == key)
+            return;
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private static <K> void removeId(Map<K, Set<String>> index, K key, String id) {
+        if (null == key)
+            return;
+        final Set<String> ids = index.get(key);
+        if (null != ids)
+            ids.remove(id);
+    }
+}
@@ -4,7 +4,6 @@ import com.google.inject.Inject;
 import network.bisq.api.model.Market;
 import bisq.common.app.Version;
 import bisq.common.crypto.KeyRing;
-import bisq.core.locale.CurrencyUtil;
 import bisq.common.util.MathUtils;
 import bisq.core.app.BisqEnvironment;
 import bisq.core.btc.Restrictions;
@@ -29,6 +28,11 @@ import java.util.*;
 
 import static bisq.core.payment.PaymentAccountUtil.isPaymentAccountValidForOffer;
 
+/**
+ * Builds offers for the given parameters. Lookups that do not depend on the individual offer (arbitrators, payment
+ * accounts, fees, market price availability) are memoized per instance, so a batch of offers should be built with a
+ * single instance. Request a new instance for every request as the memoized values are not refreshed.
+ */
 public class OfferBuilder {
 
     private final FeeService feeService;
@@ -40,10 +44,18 @@ public class OfferBuilder {
     private final AccountAgeWitnessService accountAgeWitnessService;
     private final BsqWalletService bsqWalletService;
     private final BtcWalletService btcWalletService;
+    private final MarketCatalog marketCatalog;
     private boolean marketPriceAvailable;
+    private List<NodeAddress> acceptedArbitratorAddresses;
+    private List<NodeAddress> acceptedMediatorAddresses;
+    private Map<String, PaymentAccount> paymentAccountsById;
+    private final Map<String, String> witnessHashesByAccountId = new HashMap<>();
+    private final Map<String, Boolean> marketPriceAvailableByCurrency = new HashMap<>();
+    private Coin txFee;
+    private Coin bsqAvailableBalance;
 
     @Inject
-    public OfferBuilder(AccountAgeWitnessService accountAgeWitnessService, BsqWalletService bsqWalletService, BtcWalletService btcWalletService, FeeService feeService, KeyRing keyRing, P2PService p2PService, Preferences preferences, PriceFeedService priceFeedService, User user) {
+    public OfferBuilder(AccountAgeWitnessService accountAgeWitnessService, BsqWalletService bsqWalletService, BtcWalletService btcWalletService, FeeService feeService, KeyRing keyRing, P2PService p2PService, Preferences preferences, PriceFeedService priceFeedService, User user, MarketCatalog marketCatalog) {
         this.accountAgeWitnessService = accountAgeWitnessService;
         this.bsqWalletService = bsqWalletService;
         this.btcWalletService = btcWalletService;
@@ -53,11 +65,12 @@ public class OfferBuilder {
         this.preferences = preferences;
         this.priceFeedService = priceFeedService;
         this.user = user;
+        this.marketCatalog = marketCatalog;
     }
 
     public Offer build(String offerId, String accountId, OfferPayload.Direction direction, long amount, long minAmount,
                        boolean useMarketBasedPrice, Double marketPriceMargin, String marketPair, long fiatPrice, Long buyerSecurityDeposit) throws NoAcceptedArbitratorException, PaymentAccountNotFoundException, IncompatiblePaymentAccountException {
-        final List<NodeAddress> acceptedArbitratorAddresses = user.getAcceptedArbitratorAddresses();
+        final List<NodeAddress> acceptedArbitratorAddresses = getAcceptedArbitratorAddresses();
         if (null == acceptedArbitratorAddresses || acceptedArbitratorAddresses.size() == 0) {
             throw new NoAcceptedArbitratorException("No arbitrator has been chosen");
         }
@@ -79,16 +92,14 @@ public class OfferBuilder {
         // if right side is fiat, then left is base currency.
         // else right side is base currency.
         final String currencyCode = market.getRsymbol();
-        final boolean isFiatCurrency = CurrencyUtil.isFiatCurrency(currencyCode);
+        final boolean isFiatCurrency = marketCatalog.isFiatCurrency(currencyCode);
         String baseCurrencyCode = !isFiatCurrency ? currencyCode : market.getLsymbol();
         String counterCurrencyCode = !isFiatCurrency ? market.getLsymbol() : currencyCode;
 
-        Optional<PaymentAccount> optionalAccount = getPaymentAccounts().stream()
-                .filter(account1 -> account1.getId().equals(accountId)).findFirst();
-        if (!optionalAccount.isPresent()) {
+        PaymentAccount paymentAccount = getPaymentAccount(accountId);
+        if (null == paymentAccount) {
             throw new PaymentAccountNotFoundException("Could not find payment account with id: " + accountId);
         }
-        PaymentAccount paymentAccount = optionalAccount.get();
 
         // COPIED from CreateDataOfferModel: TODO refactor uit of GUI module  /////////////////////////////
         String countryCode = paymentAccount instanceof CountryBasedPaymentAccount ? ((CountryBasedPaymentAccount) paymentAccount).getCountry().code : null;
@@ -119,7 +130,8 @@ public class OfferBuilder {
         HashMap<String, String> extraDataMap = null;
         if (isFiatCurrency) {
             extraDataMap = new HashMap<>();
-            final String myWitnessHashAsHex = accountAgeWitnessService.getMyWitnessHashAsHex(paymentAccount.getPaymentAccountPayload());
+            final String myWitnessHashAsHex = witnessHashesByAccountId.computeIfAbsent(paymentAccount.getId(),
+                    id -> accountAgeWitnessService.getMyWitnessHashAsHex(paymentAccount.getPaymentAccountPayload()));
             extraDataMap.put(OfferPayload.ACCOUNT_AGE_WITNESS_HASH, myWitnessHashAsHex);
         }
 
@@ -129,6 +141,8 @@ public class OfferBuilder {
 
         // TODO dummy values in this constructor !!!
         Coin coinAmount = Coin.valueOf(amount);
+        final boolean currencyForMakerFeeBtc = isCurrencyForMakerFeeBtc(coinAmount, marketPriceMargin);
+        final Coin makerFee = getMakerFee(currencyForMakerFeeBtc, coinAmount, marketPriceMargin);
         if (null == buyerSecurityDeposit) {
             buyerSecurityDeposit = preferences.getBuyerSecurityDepositAsCoin().value;
         }
@@ -146,7 +160,7 @@ public class OfferBuilder {
                 baseCurrencyCode,
                 counterCurrencyCode,
                 acceptedArbitratorAddresses,
-                user.getAcceptedMediatorAddresses(),
+                getAcceptedMediatorAddresses(),
                 paymentAccount.getPaymentMethod().getId(),
                 paymentAccount.getId(),
                 null, // will be filled in by BroadcastMakerFeeTx class
@@ -156,9 +170,9 @@ public class OfferBuilder {
                 acceptedBanks,
                 Version.VERSION,
                 btcWalletService.getLastBlockSeenHeight(),
-                feeService.getTxFee(600).value, // default also used in code CreateOfferDataModel
-                getMakerFee(coinAmount, marketPriceMargin).value,
-                preferences.getPayFeeInBtc() || !isBsqForFeeAvailable(coinAmount, marketPriceMargin),
+                getTxFee().value, // default also used in code CreateOfferDataModel
+                makerFee.value,
+                currencyForMakerFeeBtc,
                 buyerSecurityDeposit,
                 Restrictions.getSellerSecurityDeposit().value,
                 maxTradeLimit,
@@ -184,25 +198,22 @@ public class OfferBuilder {
         if (null == getMakerFee(false, Coin.valueOf(amount), marketPriceMargin)) {
             throw new ValidationException("makerFee must not be null");
         }
+        // offers of a batch are built before any of them is placed, so the BSQ fee is deducted from the memoized balance
+        if (!currencyForMakerFeeBtc)
+            bsqAvailableBalance = getBsqAvailableBalance().subtract(makerFee);
         return offer;
     }
 
-    @Nullable
-    private Coin getMakerFee(Coin amount, double marketPriceMargin) {
-        final boolean currencyForMakerFeeBtc = isCurrencyForMakerFeeBtc(amount, marketPriceMargin);
-        return getMakerFee(currencyForMakerFeeBtc, amount, marketPriceMargin);
-    }
-
     private boolean isCurrencyForMakerFeeBtc(Coin amount, double marketPriceMargin) {
         return preferences.getPayFeeInBtc() || !isBsqForFeeAvailable(amount, marketPriceMargin);
     }
 
     private boolean isBsqForFeeAvailable(Coin amount, double marketPriceMargin) {
-        return BisqEnvironment.isBaseCurrencySupportingBsq() &&
-                getMakerFee(false, amount, marketPriceMargin) != null &&
-                bsqWalletService.getAvailableBalance() != null &&
-                getMakerFee(false, amount, marketPriceMargin) != null &&
-                !bsqWalletService.getAvailableBalance().subtract(getMakerFee(false, amount, marketPriceMargin)).isNegative();
+        if (!BisqEnvironment.isBaseCurrencySupportingBsq())
+            return false;
+        final Coin makerFee = getMakerFee(false, amount, marketPriceMargin);
+        final Coin availableBalance = getBsqAvailableBalance();
+        return null != makerFee && null != availableBalance && !availableBalance.subtract(makerFee).isNegative();
     }
 
     @Nullable
@@ -226,13 +237,45 @@ public class OfferBuilder {
         }
     }
 
-    private Set<PaymentAccount> getPaymentAccounts() {
-        final Set<PaymentAccount> paymentAccounts = user.getPaymentAccounts();
-        return null == paymentAccounts ? Collections.<PaymentAccount>emptySet() : paymentAccounts;
+    private List<NodeAddress> getAcceptedArbitratorAddresses() {
+        if (null == acceptedArbitratorAddresses)
+            acceptedArbitratorAddresses = user.getAcceptedArbitratorAddresses();
+        return acceptedArbitratorAddresses;
+    }
+
+    private List<NodeAddress> getAcceptedMediatorAddresses() {
+        if (null == acceptedMediatorAddresses)
+            acceptedMediatorAddresses = user.getAcceptedMediatorAddresses();
+        return acceptedMediatorAddresses;
+    }
+
+    @Nullable
+    private PaymentAccount getPaymentAccount(String accountId) {
+        if (null == paymentAccountsById) {
+            paymentAccountsById = new HashMap<>();
+            final Set<PaymentAccount> paymentAccounts = user.getPaymentAccounts();
+            if (null != paymentAccounts)
+                paymentAccounts.forEach(account -> paymentAccountsById.put(account.getId(), account));
+        }
+        return paymentAccountsById.get(accountId);
+    }
+
+    private Coin getTxFee() {
+        if (null == txFee)
+            txFee = feeService.getTxFee(600);
+        return txFee;
+    }
+
+    @Nullable
+    private Coin getBsqAvailableBalance() {
+        if (null == bsqAvailableBalance)
+            bsqAvailableBalance = bsqWalletService.getAvailableBalance();
+        return bsqAvailableBalance;
     }
 
     private void updateMarketPriceAvailable(String baseCurrencyCode) {
-        marketPriceAvailable = null != priceFeedService.getMarketPrice(baseCurrencyCode);
+        marketPriceAvailable = marketPriceAvailableByCurrency.computeIfAbsent(baseCurrencyCode,
+                code -> null != priceFeedService.getMarketPrice(code));
     }
 
     private void checkMarketValidity(String marketPair) {
@@ -241,8 +284,7 @@ public class OfferBuilder {
         } else if (!marketPair.equals(marketPair.toUpperCase())) {
             throw new ValidationException("The marketPair should be uppercase: " + marketPair);
         } else {
-            final boolean existingPair = BisqProxy.calculateMarketList().markets.stream().filter(market -> market.getPair().equals(marketPair)).count() == 1;
-            if (!existingPair) {
+            if (!marketCatalog.isValidMarket(marketPair)) {
                 throw new ValidationException("There is no valid market pair called: " + marketPair + ". Note that market pairs are uppercase and are separated by an underscore: XMR_BTC");
             }
         }
@@ -0,0 +1,100 @@
+package network.bisq.api;
+
+import bisq.core.offer.Offer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import network.bisq.api.model.OfferDetail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Cache of OfferDetail models and their serialized JSON, keyed by offer id.
+ * <p>
+ * Offer payloads are immutable once published, only the offer state may change, and OfferDetail is built from nothing
+ * else. An entry is therefore reused for any instance of the offer, like the book offer and the offer of a trade, as
+ * long as the state is the same, and rebuilt otherwise. Offers removed from the offer book are evicted explicitly.
+ */
+public class OfferDetailCache {
+
+    private static final long MAXIMUM_SIZE = 50000;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> entries = CacheBuilder.newBuilder().maximumSize(MAXIMUM_SIZE).build();
+
+    public OfferDetailCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public OfferDetail getDetail(Offer offer) {
+        return getEntry(offer).detail;
+    }
+
+    public byte[] getJson(Offer offer) {
+        return getEntry(offer).getJson();
+    }
+
+    public void invalidate(String offerId) {
+        entries.invalidate(offerId);
+    }
+
+    /**
+     * Writes the offers in the format of OfferList, reusing the cached JSON of each offer.
+     */
+    public void writeOfferList(List<Offer> offers, long total, String nextCursor, OutputStream outputStream) throws IOException {
+        write(outputStream, "{\"offers\":[");
+        for (int i = 0; i < offers.size(); i++) {
+            if (0 < i)
+                outputStream.write(',');
+            outputStream.write(getJson(offers.get(i)));
+        }
+        write(outputStream, "],\"total\":" + total);
+        if (null != nextCursor)
+            write(outputStream, ",\"nextCursor\":" + objectMapper.writeValueAsString(nextCursor));
+        write(outputStream, "}");
+    }
+
+    private static void write(OutputStream outputStream, String value) throws IOException {
+        outputStream.write(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Entry getEntry(Offer offer) {
+        final String id = offer.getId();
+        final Offer.State state = offer.getState();
+        final Entry entry = entries.getIfPresent(id);
+        if (null != entry && entry.state == state)
+            return entry;
+        final Entry newEntry = new Entry(state, new OfferDetail(offer));
+        entries.put(id, newEntry);
+        return newEntry;
+    }
+
+    private class Entry {
+        private final Offer.State state;
+        private final OfferDetail detail;
+        private volatile byte[] json;
+
+        private Entry(Offer.State state, OfferDetail detail) {
+            this.state = state;
+            this.detail = detail;
+        }
+
+        private byte[] getJson() {
+            byte[] result = json;
+            if (null == result) {
+                try {
+                    result = objectMapper.writeValueAsBytes(detail);
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+                json = result;
+            }
+            return result;
+        }
+    }
+}
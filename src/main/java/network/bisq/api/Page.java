@@ -0,0 +1,17 @@
+package network.bisq.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class Page<T> {
+
+    private final List<T> items;
+    private final int total;
+    @Nullable
+    private final String nextCursor;
+}
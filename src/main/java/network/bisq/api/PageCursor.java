@@ -0,0 +1,46 @@
+package network.bisq.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.validation.ValidationException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by a numeric sort key and an id used as tie breaker.
+ * <p>
+ * The scope identifies the ordering the cursor was issued for, so that a cursor cannot be replayed against
+ * a differently sorted listing.
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private final String scope;
+    private final long sortKey;
+    private final String id;
+
+    public String encode() {
+        final String raw = scope + SEPARATOR + sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor, String expectedScope) {
+        final String[] parts;
+        final long sortKey;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+            if (3 != parts.length)
+                throw new ValidationException("Invalid cursor: " + cursor);
+            sortKey = Long.parseLong(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor: " + cursor);
+        }
+        if (!parts[0].equals(expectedScope))
+            throw new ValidationException("Cursor does not match requested ordering: " + cursor);
+        return new PageCursor(parts[0], sortKey, parts[2]);
+    }
+}
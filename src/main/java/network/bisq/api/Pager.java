@@ -0,0 +1,73 @@
+package network.bisq.api;
+
+import com.google.common.collect.Ordering;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Keyset pagination over items ordered by a numeric key (ascending or descending) and id.
+ * <p>
+ * Only the requested page is sorted, so the cost of a page is linear in the number of candidates and logarithmic
+ * in the page size. Limits above MAX_LIMIT are reduced to MAX_LIMIT, clients follow nextCursor for the rest.
+ */
+public class Pager<T> {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private final String scope;
+    private final ToLongFunction<T> sortKey;
+    private final Function<T, String> id;
+    private final boolean descending;
+    private final Comparator<T> comparator;
+
+    public Pager(String scope, ToLongFunction<T> sortKey, Function<T, String> id, boolean descending) {
+        this.scope = scope;
+        this.sortKey = sortKey;
+        this.id = id;
+        this.descending = descending;
+        this.comparator = (o1, o2) -> compare(sortKey.applyAsLong(o1), id.apply(o1), sortKey.applyAsLong(o2), id.apply(o2));
+    }
+
+    public Page<T> page(Collection<T> candidates, @Nullable String cursor, @Nullable Integer limit) {
+        final Collection<T> remaining;
+        if (null == cursor) {
+            remaining = candidates;
+        } else {
+            final PageCursor after = PageCursor.decode(cursor, scope);
+            remaining = new ArrayList<>();
+            for (T item : candidates)
+                if (compare(sortKey.applyAsLong(item), id.apply(item), after.getSortKey(), after.getId()) > 0)
+                    remaining.add(item);
+        }
+
+        if (null == limit) {
+            final List<T> items = new ArrayList<>(remaining);
+            items.sort(comparator);
+            return new Page<>(items, candidates.size(), null);
+        }
+
+        final int pageSize = Math.min(limit, MAX_LIMIT);
+        final List<T> items = new ArrayList<>(Ordering.from(comparator).leastOf(remaining, pageSize + 1));
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items.remove(pageSize);
+            nextCursor = toCursor(items.get(pageSize - 1)).encode();
+        }
+        return new Page<>(items, candidates.size(), nextCursor);
+    }
+
+    public PageCursor toCursor(T item) {
+        return new PageCursor(scope, sortKey.applyAsLong(item), id.apply(item));
+    }
+
+    private int compare(long key1, String id1, long key2, String id2) {
+        final int byKey = descending ? Long.compare(key2, key1) : Long.compare(key1, key2);
+        return 0 != byKey ? byKey : id1.compareTo(id2);
+    }
+}
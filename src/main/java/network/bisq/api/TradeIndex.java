@@ -0,0 +1,184 @@
+package network.bisq.api;
+
+import bisq.core.offer.Offer;
+import bisq.core.trade.Trade;
+import bisq.core.trade.TradeManager;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import network.bisq.api.model.TradeStatus;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of the pending trades maintained from the TradeManager tradable list.
+ * <p>
+ * Trades are indexed by id and by state. The state index follows trade state changes, so that lookups by id and
+ * listings filtered by state do not scan the trade list.
+ * <p>
+ * Trades added and removed as well as changes of the trade state, dispute state and trade period state are recorded in
+ * an event journal which backs the trade stream.
+ */
+public class TradeIndex {
+
+    public static final String ADDED = "added";
+    public static final String REMOVED = "removed";
+    public static final String STATE_CHANGED = "state-changed";
+    public static final String DISPUTE_STATE_CHANGED = "dispute-state-changed";
+    public static final String TRADE_PERIOD_STATE_CHANGED = "trade-period-state-changed";
+    private static final int JOURNAL_CAPACITY = 10000;
+
+    private final Map<String, Trade> tradesById = new ConcurrentHashMap<>();
+    private final Map<Trade.State, Set<String>> idsByState = new ConcurrentHashMap<>();
+    private final Map<String, Trade.State> indexedStates = new ConcurrentHashMap<>();
+    private final Map<String, Runnable> listenerRemovers = new ConcurrentHashMap<>();
+    private final EventJournal<Object> journal = new EventJournal<>("trades", JOURNAL_CAPACITY);
+
+    public TradeIndex(TradeManager tradeManager) {
+        final ObservableList<Trade> tradableList = tradeManager.getTradableList();
+        if (null == tradableList)
+            return;
+        tradableList.addListener((ListChangeListener<Trade>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(this::remove);
+                change.getAddedSubList().forEach(this::add);
+            }
+        });
+        tradableList.forEach(this::add);
+    }
+
+    @Nullable
+    public Trade getTrade(String tradeId) {
+        return null == tradeId ? null : tradesById.get(tradeId);
+    }
+
+    public int size() {
+        return tradesById.size();
+    }
+
+    /**
+     * Returns trades matching all of the given criteria. Null criteria are ignored. Dates are epoch millis of the take
+     * offer date, from inclusive and to exclusive.
+     */
+    public List<Trade> find(@Nullable Trade.State state, @Nullable String marketPair, @Nullable Long from, @Nullable Long to) {
+        final Collection<Trade> candidates;
+        if (null == state) {
+            candidates = tradesById.values();
+        } else {
+            final Set<String> ids = idsByState.getOrDefault(state, Collections.emptySet());
+            candidates = new ArrayList<>(ids.size());
+            ids.forEach(id -> {
+                final Trade trade = tradesById.get(id);
+                if (null != trade)
+                    candidates.add(trade);
+            });
+        }
+
+        final List<Trade> result = new ArrayList<>(candidates.size());
+        for (Trade trade : candidates) {
+            if (null != state && state != trade.getState())
+                continue;
+            if (null != marketPair) {
+                final Offer offer = trade.getOffer();
+                if (null == offer || !marketPair.equalsIgnoreCase(OfferBookIndex.getMarketPair(offer)))
+                    continue;
+            }
+            final long takeOfferDate = trade.getTakeOfferDate().getTime();
+            if ((null != from && takeOfferDate < from) || (null != to && takeOfferDate >= to))
+                continue;
+            result.add(trade);
+        }
+        return result;
+    }
+
+    /**
+     * Subscribes to trade changes. When tradeIds is not null, only events of those trades are delivered. When
+     * lastEventId is unknown or too old, a snapshot event with the status of the subscribed trades is delivered first.
+     */
+    public synchronized Runnable subscribe(@Nullable String lastEventId, @Nullable Set<String> tradeIds, EventJournal.Listener<Object> listener) {
+        if (null == tradeIds)
+            return journal.subscribe(lastEventId, () -> getSnapshot(null), listener);
+        return journal.subscribe(lastEventId, () -> getSnapshot(tradeIds), event -> {
+            final Object data = event.getData();
+            if (!(data instanceof TradeStatus) || tradeIds.contains(((TradeStatus) data).id))
+                listener.onEvent(event);
+        });
+    }
+
+    private List<TradeStatus> getSnapshot(@Nullable Set<String> tradeIds) {
+        return tradesById.values().stream()
+                .filter(trade -> null == tradeIds || tradeIds.contains(trade.getId()))
+                .map(TradeStatus::new)
+                .collect(Collectors.toList());
+    }
+
+    private synchronized void add(Trade trade) {
+        final Trade previous = tradesById.put(trade.getId(), trade);
+        if (null != previous)
+            removeListeners(previous);
+        final ChangeListener<Trade.State> stateListener = (observable, oldValue, newValue) -> {
+            index(trade);
+            journal.append(STATE_CHANGED, new TradeStatus(trade));
+        };
+        final ChangeListener<Trade.DisputeState> disputeStateListener = (observable, oldValue, newValue) ->
+                journal.append(DISPUTE_STATE_CHANGED, new TradeStatus(trade));
+        final ChangeListener<Trade.TradePeriodState> tradePeriodStateListener = (observable, oldValue, newValue) ->
+                journal.append(TRADE_PERIOD_STATE_CHANGED, new TradeStatus(trade));
+        final Runnable removeStateListener = addListener(trade.stateProperty(), stateListener);
+        final Runnable removeDisputeStateListener = addListener(trade.disputeStateProperty(), disputeStateListener);
+        final Runnable removeTradePeriodStateListener = addListener(trade.tradePeriodStateProperty(), tradePeriodStateListener);
+        listenerRemovers.put(trade.getId(), () -> {
+            removeStateListener.run();
+            removeDisputeStateListener.run();
+            removeTradePeriodStateListener.run();
+        });
+        index(trade);
+        journal.append(ADDED, new TradeStatus(trade));
+    }
+
+    private synchronized void remove(Trade trade) {
+        if (tradesById.remove(trade.getId(), trade)) {
+            removeListeners(trade);
+            unindex(trade.getId());
+            journal.append(REMOVED, new TradeStatus(trade));
+        }
+    }
+
+    private static <T> Runnable addListener(ObservableValue<T> property, ChangeListener<T> listener) {
+        property.addListener(listener);
+        return () -> property.removeListener(listener);
+    }
+
+    private void removeListeners(Trade trade) {
+        final Runnable listenerRemover = listenerRemovers.remove(trade.getId());
+        if (null != listenerRemover)
+            listenerRemover.run();
+    }
+
+    private synchronized void index(Trade trade) {
+        unindex(trade.getId());
+        final Trade.State state = trade.getState();
+        if (null == state)
+            return;
+        indexedStates.put(trade.getId(), state);
+        idsByState.computeIfAbsent(state, key -> ConcurrentHashMap.newKeySet()).add(trade.getId());
+    }
+
+    private void unindex(String tradeId) {
+        final Trade.State state = indexedStates.remove(tradeId);
+        if (null == state)
+            return;
+        final Set<String> ids = idsByState.get(state);
+        if (null != ids)
+            ids.remove(tradeId);
+    }
+}
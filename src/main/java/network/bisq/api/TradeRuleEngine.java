@@ -0,0 +1,184 @@
+package network.bisq.api;
+
+import bisq.common.UserThread;
+import bisq.core.btc.wallet.WalletsSetup;
+import bisq.core.locale.CurrencyUtil;
+import bisq.core.offer.Offer;
+import bisq.core.trade.BuyerTrade;
+import bisq.core.trade.Trade;
+import lombok.extern.slf4j.Slf4j;
+import network.bisq.api.model.TradeRule;
+import network.bisq.api.model.TradeStatus;
+import org.bitcoinj.core.BlockChain;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.wallet.Wallet;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Evaluates trade rules against trade state events and performs the matching trade operations inside the API process.
+ * <p>
+ * Trades are evaluated when a rule is added, when the trade journal reports a change and, while a rule waits for
+ * deposit confirmations, when a new block arrives. An operation is started at most once at a time per trade and action.
+ * Trades with an open dispute are left alone, and PAYMENT_RECEIVED rules that are not limited to listed trades never
+ * match. Rules are kept in memory and have to be registered again after a restart.
+ */
+@Slf4j
+public class TradeRuleEngine {
+
+    private final TradeIndex tradeIndex;
+    private final Wallet wallet;
+    private final ActionHandler actionHandler;
+    private final Map<String, TradeRule> rulesById = new LinkedHashMap<>();
+    private final Set<String> runningActions = ConcurrentHashMap.newKeySet();
+
+    public TradeRuleEngine(TradeIndex tradeIndex, WalletsSetup walletsSetup, ActionHandler actionHandler) {
+        this.tradeIndex = tradeIndex;
+        this.wallet = walletsSetup.getBtcWallet();
+        this.actionHandler = actionHandler;
+
+        tradeIndex.subscribe(null, null, event -> {
+            final Object data = event.getData();
+            if (!(data instanceof TradeStatus))
+                return;
+            try {
+                evaluate(tradeIndex.getTrade(((TradeStatus) data).id));
+            } catch (Throwable t) {
+                log.error("Unable to evaluate trade rules", t);
+            }
+        });
+        final BlockChain chain = walletsSetup.getChain();
+        if (null != chain)
+            chain.addNewBestBlockListener(block -> {
+                if (isWaitingForConfirmations())
+                    evaluateAll();
+            });
+    }
+
+    public synchronized List<TradeRule> getRules() {
+        return new ArrayList<>(rulesById.values());
+    }
+
+    @Nullable
+    public synchronized TradeRule getRule(String id) {
+        return rulesById.get(id);
+    }
+
+    public TradeRule addRule(TradeRule rule) {
+        synchronized (this) {
+            rule.id = UUID.randomUUID().toString();
+            rulesById.put(rule.id, rule);
+        }
+        evaluateAll();
+        return rule;
+    }
+
+    public synchronized boolean removeRule(String id) {
+        return null != rulesById.remove(id);
+    }
+
+    private synchronized boolean isWaitingForConfirmations() {
+        return rulesById.values().stream().anyMatch(rule -> rule.minConfirmations > 0);
+    }
+
+    private void evaluateAll() {
+        tradeIndex.find(null, null, null, null).forEach(this::evaluate);
+    }
+
+    private void evaluate(@Nullable Trade trade) {
+        if (null == trade || Trade.DisputeState.NO_DISPUTE != trade.getDisputeState())
+            return;
+        for (TradeRule rule : getRules()) {
+            if (!isApplicable(rule.action, trade) || !matches(rule, trade, this::getDepositConfirmations))
+                continue;
+            final String key = trade.getId() + ":" + rule.action;
+            if (runningActions.add(key))
+                execute(rule, trade, key);
+        }
+    }
+
+    private void execute(TradeRule rule, Trade trade, String key) {
+        UserThread.execute(() -> {
+            final CompletableFuture<Void> future;
+            try {
+                future = actionHandler.execute(rule.action, trade.getId());
+            } catch (Throwable t) {
+                runningActions.remove(key);
+                log.error("Trade rule " + rule.id + " failed to perform " + rule.action + " for trade " + trade.getId(), t);
+                return;
+            }
+            future.whenComplete((result, throwable) -> {
+                runningActions.remove(key);
+                if (null == throwable)
+                    log.info("Trade rule {} performed {} for trade {}", rule.id, rule.action, trade.getId());
+                else
+                    log.error("Trade rule " + rule.id + " failed to perform " + rule.action + " for trade " + trade.getId(), throwable);
+            });
+        });
+    }
+
+    /**
+     * Whether the rule is narrow enough to be performed automatically. Confirming receipt releases the BTC of the
+     * seller as soon as the buyer reports the payment as started, which the API cannot verify, neither for fiat nor for
+     * altcoin payments. PAYMENT_RECEIVED is therefore only allowed for explicitly listed trades, and without
+     * minConfirmations, which only counts deposit confirmations and would suggest a check of the payment.
+     */
+    public static boolean isAllowed(TradeRule rule) {
+        if (TradeRule.Action.PAYMENT_RECEIVED != rule.action)
+            return true;
+        return null != rule.tradeIds && !rule.tradeIds.isEmpty() && rule.minConfirmations <= 0;
+    }
+
+    /**
+     * Whether the trade is in the state the action requires, so that rules never attempt an operation the trade
+     * protocol would reject.
+     */
+    static boolean isApplicable(TradeRule.Action action, Trade trade) {
+        final Trade.State state = trade.getState();
+        switch (action) {
+            case PAYMENT_STARTED:
+                return Trade.State.DEPOSIT_CONFIRMED_IN_BLOCK_CHAIN == state && trade instanceof BuyerTrade;
+            case PAYMENT_RECEIVED:
+                return Trade.State.SELLER_RECEIVED_FIAT_PAYMENT_INITIATED_MSG == state;
+            case MOVE_FUNDS_TO_BISQ_WALLET:
+                return Trade.State.SELLER_SAW_ARRIVED_PAYOUT_TX_PUBLISHED_MSG == state || Trade.State.BUYER_RECEIVED_PAYOUT_TX_PUBLISHED_MSG == state;
+            default:
+                return false;
+        }
+    }
+
+    static boolean matches(TradeRule rule, Trade trade, ToIntFunction<Trade> depositConfirmations) {
+        if (!isAllowed(rule))
+            return false;
+        if (null != rule.tradeIds && !rule.tradeIds.isEmpty() && !rule.tradeIds.contains(trade.getId()))
+            return false;
+        final Offer offer = trade.getOffer();
+        if (null == offer && (null != rule.market || null != rule.paymentMethod || rule.cryptoOnly))
+            return false;
+        if (null != rule.market && !rule.market.equalsIgnoreCase(OfferBookIndex.getMarketPair(offer)))
+            return false;
+        if (null != rule.paymentMethod && !rule.paymentMethod.equals(offer.getOfferPayload().getPaymentMethodId()))
+            return false;
+        if (rule.cryptoOnly && !CurrencyUtil.isCryptoCurrency(offer.getCurrencyCode()))
+            return false;
+        return rule.minConfirmations <= 0 || depositConfirmations.applyAsInt(trade) >= rule.minConfirmations;
+    }
+
+    private int getDepositConfirmations(Trade trade) {
+        final Transaction depositTx = trade.getDepositTx();
+        return null == depositTx ? 0 : WalletTransactionIndex.getConfirmations(depositTx, wallet.getLastBlockSeenHeight());
+    }
+
+    public interface ActionHandler {
+        CompletableFuture<Void> execute(TradeRule.Action action, String tradeId);
+    }
+}
@@ -0,0 +1,267 @@
+package network.bisq.api;
+
+import bisq.core.btc.AddressEntry;
+import bisq.core.btc.listeners.BalanceListener;
+import bisq.core.btc.wallet.BtcWalletService;
+import bisq.core.btc.wallet.WalletService;
+import bisq.core.btc.wallet.WalletsSetup;
+import bisq.core.offer.OpenOfferManager;
+import bisq.core.trade.Trade;
+import bisq.core.trade.TradeManager;
+import bisq.core.trade.closed.ClosedTradableManager;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.bitcoinj.core.BlockChain;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.wallet.Wallet;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of the BTC wallet address entries by address string, with cached per-address balances and confirmations.
+ * <p>
+ * Entries are also partitioned by context and keyed by offer or trade id, so that the reserved, locked, payout and
+ * available views are read directly instead of looking up each offer or trade in the address entry list.
+ * <p>
+ * The address entry list has no change notification, so the entry index is invalidated by everything that creates or
+ * moves entries: changes of the open offer and trade lists, trade state changes and wallet transactions, since
+ * bisq-core swaps entries during the trade protocol, new keys of the wallet and the API's own calls. Every invalidation
+ * bumps a change counter and an index built before the last change is rebuilt lazily on its next use, a lookup that
+ * misses rebuilds it as well. Balances and confirmations are cached per address and dropped for the addresses that take
+ * part in a wallet transaction. Confirmations are also dropped when a new block arrives.
+ */
+public class WalletAddressIndex {
+
+    private final BtcWalletService btcWalletService;
+    private final Wallet wallet;
+    private final Map<String, Coin> balancesByAddress = new ConcurrentHashMap<>();
+    private final Map<String, Integer> confirmationsByAddress = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final ChangeListener<Object> tradeStateListener = (observable, oldValue, newValue) -> invalidate();
+    @Nullable
+    private volatile Entries entries;
+
+    public WalletAddressIndex(BtcWalletService btcWalletService, WalletsSetup walletsSetup, OpenOfferManager openOfferManager,
+                              TradeManager tradeManager, ClosedTradableManager closedTradableManager) {
+        this.btcWalletService = btcWalletService;
+        this.wallet = walletsSetup.getBtcWallet();
+
+        btcWalletService.addBalanceListener(new BalanceListener() {
+            @Override
+            public void onBalanceChanged(Coin balance, Transaction tx) {
+                onWalletChanged(tx);
+            }
+        });
+        wallet.addReorganizeEventListener(changedWallet -> onWalletChanged(null));
+        wallet.addKeyChainEventListener(keys -> invalidate());
+        final BlockChain chain = walletsSetup.getChain();
+        if (null != chain)
+            chain.addNewBestBlockListener(block -> confirmationsByAddress.clear());
+        openOfferManager.getObservableList().addListener((ListChangeListener<Object>) change -> invalidate());
+        final ObservableList<Trade> tradableList = tradeManager.getTradableList();
+        if (null != tradableList) {
+            tradableList.forEach(trade -> trade.stateProperty().addListener(tradeStateListener));
+            tradableList.addListener((ListChangeListener<Trade>) change -> {
+                invalidate();
+                while (change.next()) {
+                    change.getRemoved().forEach(trade -> trade.stateProperty().removeListener(tradeStateListener));
+                    change.getAddedSubList().forEach(trade -> trade.stateProperty().addListener(tradeStateListener));
+                }
+            });
+        }
+        closedTradableManager.getClosedTradables().addListener((ListChangeListener<Object>) change -> invalidate());
+    }
+
+    /**
+     * Addresses that receive or spend funds in the given transaction.
+     */
+    public static Set<String> getAddressStrings(Transaction tx) {
+        final Set<String> addresses = new HashSet<>();
+        for (TransactionOutput output : tx.getOutputs())
+            addAddressString(addresses, output);
+        for (TransactionInput input : tx.getInputs())
+            addAddressString(addresses, input.getConnectedOutput());
+        return addresses;
+    }
+
+    public List<AddressEntry> getAddressEntries() {
+        return new ArrayList<>(getEntries().byAddress.values());
+    }
+
+    public List<AddressEntry> getAddressEntries(AddressEntry.Context context) {
+        return new ArrayList<>(getEntries().getByContext(context).values());
+    }
+
+    /**
+     * Entries of the given context belonging to the given offer or trade ids, in iteration order. Ids without such
+     * an entry are left out. The index is rebuilt at most once per call when an id is missing.
+     */
+    public List<AddressEntry> getAddressEntries(AddressEntry.Context context, Collection<String> ids) {
+        final List<AddressEntry> result = new ArrayList<>(ids.size());
+        Map<String, AddressEntry> entriesById = getEntries().getByContext(context);
+        boolean rebuilt = false;
+        for (String id : ids) {
+            AddressEntry entry = entriesById.get(id);
+            if (null == entry && !rebuilt) {
+                entriesById = rebuild().getByContext(context);
+                rebuilt = true;
+                entry = entriesById.get(id);
+            }
+            if (null != entry)
+                result.add(entry);
+        }
+        return result;
+    }
+
+    @Nullable
+    public AddressEntry getAddressEntry(String address) {
+        return resolve(Collections.singleton(address)).get(address);
+    }
+
+    /**
+     * Looks up the entries of the given addresses, in iteration order. Unknown addresses are left out. The index is
+     * rebuilt at most once per call when an address is missing.
+     */
+    public Map<String, AddressEntry> resolve(Collection<String> addresses) {
+        final Map<String, AddressEntry> result = new LinkedHashMap<>();
+        Map<String, AddressEntry> entriesByAddress = getEntries().byAddress;
+        boolean rebuilt = false;
+        for (String address : addresses) {
+            if (null == address)
+                continue;
+            AddressEntry entry = entriesByAddress.get(address);
+            if (null == entry && !rebuilt) {
+                entriesByAddress = rebuild().byAddress;
+                rebuilt = true;
+                entry = entriesByAddress.get(address);
+            }
+            if (null != entry)
+                result.put(address, entry);
+        }
+        return result;
+    }
+
+    public Coin getBalance(AddressEntry entry) {
+        return balancesByAddress.computeIfAbsent(entry.getAddressString(), address -> btcWalletService.getBalanceForAddress(entry.getAddress()));
+    }
+
+    public int getConfirmations(AddressEntry entry) {
+        return confirmationsByAddress.computeIfAbsent(entry.getAddressString(), address -> {
+            final TransactionConfidence confidence = btcWalletService.getConfidenceForAddress(entry.getAddress());
+            return null == confidence ? 0 : confidence.getDepthInBlocks();
+        });
+    }
+
+    /**
+     * Computes the missing balances and confirmations of the given entries. Looking up each address scans the whole
+     * wallet under its lock, so the misses are collected first and then computed in one pass over the spend candidates
+     * for balances and one pass over the wallet transactions for confirmations. Balances of multisig entries are not
+     * looked up since they are taken from the entry itself.
+     */
+    public void prefetch(Collection<AddressEntry> entries) {
+        final Set<String> missingBalances = new HashSet<>();
+        final Set<String> missingConfirmations = new HashSet<>();
+        for (AddressEntry entry : entries) {
+            final String address = entry.getAddressString();
+            if (AddressEntry.Context.MULTI_SIG != entry.getContext() && !balancesByAddress.containsKey(address))
+                missingBalances.add(address);
+            if (!confirmationsByAddress.containsKey(address))
+                missingConfirmations.add(address);
+        }
+
+        if (!missingBalances.isEmpty()) {
+            final Map<String, Coin> balances = new HashMap<>();
+            for (TransactionOutput output : wallet.calculateAllSpendCandidates()) {
+                if (!WalletService.isOutputScriptConvertibleToAddress(output))
+                    continue;
+                final String address = WalletService.getAddressStringFromOutput(output);
+                if (missingBalances.contains(address))
+                    balances.merge(address, output.getValue(), Coin::add);
+            }
+            missingBalances.forEach(address -> balancesByAddress.putIfAbsent(address, balances.getOrDefault(address, Coin.ZERO)));
+        }
+
+        if (!missingConfirmations.isEmpty()) {
+            // the most recent transaction of an address determines its confirmations, like getConfidenceForAddress
+            final Map<String, Integer> confirmations = new HashMap<>();
+            for (Transaction tx : wallet.getTransactions(false)) {
+                final int depth = tx.getConfidence().getDepthInBlocks();
+                for (String address : getAddressStrings(tx))
+                    if (missingConfirmations.contains(address))
+                        confirmations.merge(address, depth, Math::min);
+            }
+            missingConfirmations.forEach(address -> confirmationsByAddress.putIfAbsent(address, confirmations.getOrDefault(address, 0)));
+        }
+    }
+
+    public void invalidate() {
+        changes.incrementAndGet();
+    }
+
+    private Entries getEntries() {
+        final Entries current = entries;
+        return null == current || current.version != changes.get() ? rebuild() : current;
+    }
+
+    private synchronized Entries rebuild() {
+        // the counter is read before the list, so a change during the rebuild leaves the result outdated
+        final Entries rebuilt = new Entries(changes.get(), btcWalletService.getAddressEntryListAsImmutableList());
+        entries = rebuilt;
+        return rebuilt;
+    }
+
+    private void onWalletChanged(@Nullable Transaction tx) {
+        invalidate();
+        if (null == tx) {
+            balancesByAddress.clear();
+            confirmationsByAddress.clear();
+            return;
+        }
+        getAddressStrings(tx).forEach(address -> {
+            balancesByAddress.remove(address);
+            confirmationsByAddress.remove(address);
+        });
+    }
+
+    private static void addAddressString(Set<String> addresses, @Nullable TransactionOutput output) {
+        if (null != output && WalletService.isOutputScriptConvertibleToAddress(output))
+            addresses.add(WalletService.getAddressStringFromOutput(output));
+    }
+
+    private static class Entries {
+        private final Map<String, AddressEntry> byAddress = new HashMap<>();
+        private final Map<AddressEntry.Context, Map<String, AddressEntry>> byContext = new EnumMap<>(AddressEntry.Context.class);
+        private final long version;
+
+        private Entries(long version, List<AddressEntry> addressEntries) {
+            this.version = version;
+            for (AddressEntry entry : addressEntries) {
+                byAddress.putIfAbsent(entry.getAddressString(), entry);
+                // AVAILABLE entries have no offer id, they are keyed by address instead
+                final String key = null == entry.getOfferId() ? entry.getAddressString() : entry.getOfferId();
+                byContext.computeIfAbsent(entry.getContext(), context -> new LinkedHashMap<>()).putIfAbsent(key, entry);
+            }
+        }
+
+        private Map<String, AddressEntry> getByContext(AddressEntry.Context context) {
+            return byContext.getOrDefault(context, Collections.emptyMap());
+        }
+    }
+}
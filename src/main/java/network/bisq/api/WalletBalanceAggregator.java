@@ -0,0 +1,160 @@
+package network.bisq.api;
+
+import bisq.core.btc.AddressEntry;
+import bisq.core.btc.listeners.BalanceListener;
+import bisq.core.btc.wallet.BtcWalletService;
+import bisq.core.offer.OpenOffer;
+import bisq.core.offer.OpenOfferManager;
+import bisq.core.trade.Trade;
+import bisq.core.trade.TradeManager;
+import bisq.core.trade.closed.ClosedTradableManager;
+import bisq.core.trade.failed.FailedTradesManager;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import network.bisq.api.model.WalletDetails;
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Transaction;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the available, reserved and locked wallet balances up to date from wallet, open offer and trade events, so
+ * that reading them is a plain field access.
+ * <p>
+ * Reserved funds are tracked per open offer. A wallet transaction only refreshes the offers whose reserved address
+ * takes part in it. The locked balance only depends on the few trades with a published deposit and is recomputed on
+ * every event.
+ */
+public class WalletBalanceAggregator {
+
+    private final BtcWalletService btcWalletService;
+    private final OpenOfferManager openOfferManager;
+    private final TradeManager tradeManager;
+    private final ClosedTradableManager closedTradableManager;
+    private final FailedTradesManager failedTradesManager;
+    private final Map<String, Address> reservedAddressByOfferId = new HashMap<>();
+    private final Map<String, Long> reservedByOfferId = new HashMap<>();
+    private final ChangeListener<Object> tradeStateListener = (observable, oldValue, newValue) -> refreshLocked();
+    private long availableBalance;
+    private long reservedBalance;
+    private long lockedBalance;
+    private volatile WalletDetails snapshot;
+
+    public WalletBalanceAggregator(BtcWalletService btcWalletService, OpenOfferManager openOfferManager, TradeManager tradeManager,
+                                   ClosedTradableManager closedTradableManager, FailedTradesManager failedTradesManager) {
+        this.btcWalletService = btcWalletService;
+        this.openOfferManager = openOfferManager;
+        this.tradeManager = tradeManager;
+        this.closedTradableManager = closedTradableManager;
+        this.failedTradesManager = failedTradesManager;
+
+        btcWalletService.addBalanceListener(new BalanceListener() {
+            @Override
+            public void onBalanceChanged(Coin balance, Transaction tx) {
+                onWalletChanged(balance, tx);
+            }
+        });
+        openOfferManager.getObservableList().addListener((ListChangeListener<OpenOffer>) this::onOpenOffersChanged);
+        final ObservableList<Trade> tradableList = tradeManager.getTradableList();
+        if (null != tradableList) {
+            tradableList.forEach(trade -> trade.stateProperty().addListener(tradeStateListener));
+            tradableList.addListener((ListChangeListener<Trade>) change -> {
+                while (change.next()) {
+                    change.getRemoved().forEach(trade -> trade.stateProperty().removeListener(tradeStateListener));
+                    change.getAddedSubList().forEach(trade -> trade.stateProperty().addListener(tradeStateListener));
+                }
+                refreshLocked();
+            });
+        }
+        closedTradableManager.getClosedTradables().addListener((ListChangeListener<Object>) change -> refreshLocked());
+        failedTradesManager.getFailedTrades().addListener((ListChangeListener<Object>) change -> refreshLocked());
+        if (btcWalletService.isWalletReady())
+            refreshAll();
+    }
+
+    public WalletDetails getWalletDetails() {
+        final WalletDetails current = snapshot;
+        return null == current ? refreshAll() : current;
+    }
+
+    private synchronized WalletDetails refreshAll() {
+        reservedAddressByOfferId.clear();
+        reservedByOfferId.clear();
+        reservedBalance = 0;
+        openOfferManager.getObservableList().forEach(this::addOpenOffer);
+        availableBalance = btcWalletService.getAvailableBalance().value;
+        lockedBalance = calculateLockedBalance();
+        return publish();
+    }
+
+    private synchronized void onWalletChanged(Coin availableBalance, @Nullable Transaction tx) {
+        if (null == tx) {
+            refreshAll();
+            return;
+        }
+        final Set<String> addresses = WalletAddressIndex.getAddressStrings(tx);
+        reservedAddressByOfferId.forEach((offerId, address) -> {
+            if (addresses.contains(address.toString()))
+                setReserved(offerId, btcWalletService.getBalanceForAddress(address).value);
+        });
+        this.availableBalance = availableBalance.value;
+        lockedBalance = calculateLockedBalance();
+        publish();
+    }
+
+    private synchronized void onOpenOffersChanged(ListChangeListener.Change<? extends OpenOffer> change) {
+        while (change.next()) {
+            change.getRemoved().forEach(openOffer -> {
+                reservedAddressByOfferId.remove(openOffer.getId());
+                final Long reserved = reservedByOfferId.remove(openOffer.getId());
+                if (null != reserved)
+                    reservedBalance -= reserved;
+            });
+            change.getAddedSubList().forEach(this::addOpenOffer);
+        }
+        publish();
+    }
+
+    private synchronized void refreshLocked() {
+        lockedBalance = calculateLockedBalance();
+        publish();
+    }
+
+    private void addOpenOffer(OpenOffer openOffer) {
+        final Optional<AddressEntry> addressEntry = btcWalletService.getAddressEntry(openOffer.getId(), AddressEntry.Context.RESERVED_FOR_TRADE);
+        if (!addressEntry.isPresent())
+            return;
+        final Address address = addressEntry.get().getAddress();
+        reservedAddressByOfferId.put(openOffer.getId(), address);
+        setReserved(openOffer.getId(), btcWalletService.getBalanceForAddress(address).value);
+    }
+
+    private void setReserved(String offerId, long amount) {
+        final Long previous = reservedByOfferId.put(offerId, amount);
+        reservedBalance += amount - (null == previous ? 0 : previous);
+    }
+
+    // TODO copied from MainViewModel - refactor !
+    private long calculateLockedBalance() {
+        Stream<Trade> lockedTrades = Stream.concat(closedTradableManager.getLockedTradesStream(), failedTradesManager.getLockedTradesStream());
+        lockedTrades = Stream.concat(lockedTrades, tradeManager.getLockedTradesStream());
+        return lockedTrades
+                .mapToLong(trade -> btcWalletService.getAddressEntry(trade.getId(), AddressEntry.Context.MULTI_SIG)
+                        .map(addressEntry -> addressEntry.getCoinLockedInMultiSig().getValue())
+                        .orElse(0L))
+                .sum();
+    }
+
+    private WalletDetails publish() {
+        final WalletDetails walletDetails = new WalletDetails(availableBalance, reservedBalance, lockedBalance);
+        snapshot = walletDetails;
+        return walletDetails;
+    }
+}
@@ -0,0 +1,190 @@
+package network.bisq.api;
+
+import bisq.core.btc.AddressEntry;
+import bisq.core.btc.listeners.BalanceListener;
+import bisq.core.btc.wallet.BtcWalletService;
+import bisq.core.btc.wallet.WalletService;
+import bisq.core.btc.wallet.WalletsSetup;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import network.bisq.api.model.WalletAddress;
+import org.bitcoinj.core.BlockChain;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.wallet.Wallet;
+
+import javax.annotation.Nullable;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal of wallet changes backing the wallet event stream.
+ * <p>
+ * Wallet and block events only mark what changed. A background task turns the marks into balance-changed, tx-received,
+ * tx-confirmed and address-used events at a fixed interval, so that bursts like a block with many wallet transactions
+ * produce one balance event and one event per transaction. tx-received is only published for transactions that add
+ * funds to the wallet, while incoming and outgoing transactions alike are followed with tx-confirmed until they reach
+ * CONFIRMATION_TARGET confirmations.
+ */
+@Slf4j
+public class WalletEventStream {
+
+    public static final String BALANCE_CHANGED = "balance-changed";
+    public static final String TX_RECEIVED = "tx-received";
+    public static final String TX_CONFIRMED = "tx-confirmed";
+    public static final String ADDRESS_USED = "address-used";
+    public static final int CONFIRMATION_TARGET = 6;
+    private static final long COALESCE_MILLIS = 500;
+    private static final int JOURNAL_CAPACITY = 10000;
+
+    private final BtcWalletService btcWalletService;
+    private final Wallet wallet;
+    private final WalletBalanceAggregator walletBalanceAggregator;
+    private final WalletTransactionIndex walletTransactionIndex;
+    private final WalletAddressIndex walletAddressIndex;
+    private final EventJournal<Object> journal = new EventJournal<>("wallet", JOURNAL_CAPACITY);
+    private final Map<String, Transaction> receivedTransactions = new LinkedHashMap<>();
+    private final Map<String, Transaction> watchedTransactions = new LinkedHashMap<>();
+    private final Map<String, Integer> reportedConfirmations = new LinkedHashMap<>();
+    private final Set<String> usedAddresses = new HashSet<>();
+    private boolean balanceChanged;
+    private boolean blockArrived;
+
+    public WalletEventStream(BtcWalletService btcWalletService, WalletsSetup walletsSetup, WalletBalanceAggregator walletBalanceAggregator,
+                             WalletTransactionIndex walletTransactionIndex, WalletAddressIndex walletAddressIndex) {
+        this.btcWalletService = btcWalletService;
+        this.wallet = walletsSetup.getBtcWallet();
+        this.walletBalanceAggregator = walletBalanceAggregator;
+        this.walletTransactionIndex = walletTransactionIndex;
+        this.walletAddressIndex = walletAddressIndex;
+
+        btcWalletService.addBalanceListener(new BalanceListener() {
+            @Override
+            public void onBalanceChanged(Coin balance, Transaction tx) {
+                onWalletChanged(tx);
+            }
+        });
+        final BlockChain chain = walletsSetup.getChain();
+        if (null != chain)
+            chain.addNewBestBlockListener(block -> onBlockArrived());
+
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("wallet-event-coalescer")
+                .setDaemon(true)
+                .build());
+        executor.execute(this::loadUsedAddresses);
+        executor.scheduleWithFixedDelay(this::flush, COALESCE_MILLIS, COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to wallet events. When lastEventId is unknown or too old, a snapshot event with the current wallet
+     * balances is delivered first.
+     */
+    public Runnable subscribe(@Nullable String lastEventId, EventJournal.Listener<Object> listener) {
+        return journal.subscribe(lastEventId, walletBalanceAggregator::getWalletDetails, listener);
+    }
+
+    private synchronized void onWalletChanged(@Nullable Transaction tx) {
+        balanceChanged = true;
+        if (null != tx)
+            receivedTransactions.put(tx.getHashAsString(), tx);
+    }
+
+    private synchronized void onBlockArrived() {
+        blockArrived = true;
+    }
+
+    private synchronized void loadUsedAddresses() {
+        for (Transaction transaction : btcWalletService.getTransactions(false))
+            usedAddresses.addAll(getOwnAddressStrings(transaction));
+    }
+
+    private void flush() {
+        try {
+            flushPending();
+        } catch (Throwable t) {
+            log.error("Unable to publish wallet events", t);
+        }
+    }
+
+    private synchronized void flushPending() {
+        if (balanceChanged) {
+            balanceChanged = false;
+            journal.append(BALANCE_CHANGED, walletBalanceAggregator.getWalletDetails());
+        }
+
+        final boolean checkConfirmations = blockArrived || !receivedTransactions.isEmpty();
+        blockArrived = false;
+        for (Transaction transaction : receivedTransactions.values()) {
+            final String hash = transaction.getHashAsString();
+            if (!watchedTransactions.containsKey(hash)) {
+                if (isIncoming(transaction))
+                    journal.append(TX_RECEIVED, walletTransactionIndex.getTransaction(transaction));
+                watchedTransactions.put(hash, transaction);
+                reportedConfirmations.put(hash, 0);
+            }
+            for (String address : getOwnAddressStrings(transaction))
+                if (usedAddresses.add(address))
+                    publishAddressUsed(address);
+        }
+        receivedTransactions.clear();
+
+        if (checkConfirmations) {
+            final int bestChainHeight = wallet.getLastBlockSeenHeight();
+            final Iterator<Map.Entry<String, Transaction>> iterator = watchedTransactions.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, Transaction> watched = iterator.next();
+                final int confirmations = WalletTransactionIndex.getConfirmations(watched.getValue(), bestChainHeight);
+                final Integer reported = reportedConfirmations.get(watched.getKey());
+                if (null == reported || confirmations != reported) {
+                    reportedConfirmations.put(watched.getKey(), confirmations);
+                    journal.append(TX_CONFIRMED, ImmutableMap.of("hash", watched.getKey(), "confirmations", confirmations));
+                }
+                if (confirmations >= CONFIRMATION_TARGET || isDead(watched.getValue())) {
+                    iterator.remove();
+                    reportedConfirmations.remove(watched.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the transaction adds funds to the wallet. Outgoing transactions, including their change, are not
+     * reported as received, only their confirmations are.
+     */
+    private boolean isIncoming(Transaction transaction) {
+        return transaction.getValueSentToMe(wallet).isGreaterThan(transaction.getValueSentFromMe(wallet));
+    }
+
+    private static boolean isDead(Transaction transaction) {
+        final TransactionConfidence confidence = transaction.getConfidence();
+        return null != confidence && TransactionConfidence.ConfidenceType.DEAD == confidence.getConfidenceType();
+    }
+
+    private void publishAddressUsed(String address) {
+        final AddressEntry entry = walletAddressIndex.getAddressEntry(address);
+        if (null == entry)
+            return;
+        final long balance = AddressEntry.Context.MULTI_SIG == entry.getContext()
+                ? entry.getCoinLockedInMultiSig().value
+                : walletAddressIndex.getBalance(entry).value;
+        journal.append(ADDRESS_USED, new WalletAddress(address, balance, walletAddressIndex.getConfirmations(entry), entry.getContext(), entry.getOfferId()));
+    }
+
+    private Set<String> getOwnAddressStrings(Transaction transaction) {
+        final Set<String> addresses = new HashSet<>();
+        for (TransactionOutput output : transaction.getOutputs())
+            if (btcWalletService.isTransactionOutputMine(output) && WalletService.isOutputScriptConvertibleToAddress(output))
+                addresses.add(WalletService.getAddressStringFromOutput(output));
+        return addresses;
+    }
+}
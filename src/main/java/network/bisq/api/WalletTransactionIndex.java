@@ -0,0 +1,246 @@
+package network.bisq.api;
+
+import bisq.core.app.BisqEnvironment;
+import bisq.core.btc.listeners.BalanceListener;
+import bisq.core.btc.wallet.BsqWalletService;
+import bisq.core.btc.wallet.BtcWalletService;
+import bisq.core.btc.wallet.WalletService;
+import network.bisq.api.model.WalletTransaction;
+import network.bisq.api.model.WalletTransactionList;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.wallet.Wallet;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Converted view of the BTC wallet transactions, keyed by transaction hash.
+ * <p>
+ * Converting a transaction requires checking every output against the BTC and BSQ wallets, so it is done once when the
+ * transaction is first seen and again only when a wallet event reports it, which is also when its update time is taken.
+ * Entries are kept ordered by update time, so a page seeks to since and to the cursor and reads only its own
+ * transactions. Confirmations change with the chain and are read from the transaction when a page is built.
+ */
+public class WalletTransactionIndex {
+
+    private static final String SCOPE = "-updateTime";
+
+    private final BtcWalletService btcWalletService;
+    private final BsqWalletService bsqWalletService;
+    private final Wallet wallet;
+    private static final Comparator<Entry> ORDER = Comparator.comparingLong((Entry entry) -> entry.updateTime).reversed()
+            .thenComparing(entry -> entry.hash);
+
+    private final Map<String, Entry> entriesByHash = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> entriesByUpdateTime = new ConcurrentSkipListSet<>(ORDER);
+    private volatile boolean loaded;
+
+    public WalletTransactionIndex(BtcWalletService btcWalletService, BsqWalletService bsqWalletService, Wallet wallet) {
+        this.btcWalletService = btcWalletService;
+        this.bsqWalletService = bsqWalletService;
+        this.wallet = wallet;
+
+        btcWalletService.addBalanceListener(new BalanceListener() {
+            @Override
+            public void onBalanceChanged(Coin balance, Transaction tx) {
+                if (null == tx)
+                    loaded = false;
+                else if (loaded)
+                    put(tx);
+            }
+        });
+        wallet.addReorganizeEventListener(reorganizedWallet -> loaded = false);
+    }
+
+    /**
+     * Returns transactions ordered by update time, newest first. Total counts the transactions updated since the given
+     * time, so it takes time proportional to their number.
+     *
+     * @param since  only transactions updated at or after this time (epoch millis) are returned when not null
+     * @param cursor nextCursor of the previous page
+     * @param limit  maximum number of transactions, all when null
+     */
+    public WalletTransactionList find(@Nullable Long since, @Nullable String cursor, @Nullable Integer limit) {
+        if (!loaded)
+            load();
+        // newest first, so entries before (since - 1, "") are the ones updated at or after since
+        NavigableSet<Entry> range = entriesByUpdateTime;
+        if (null != since)
+            range = range.headSet(new Entry(since - 1, ""), false);
+        final int total = null == since ? entriesByHash.size() : range.size();
+        if (null != cursor) {
+            final PageCursor after = PageCursor.decode(cursor, SCOPE);
+            range = range.tailSet(new Entry(after.getSortKey(), after.getId()), false);
+        }
+
+        final int pageSize = null == limit ? Integer.MAX_VALUE : Math.min(limit, Pager.MAX_LIMIT);
+        final int bestChainHeight = wallet.getLastBlockSeenHeight();
+        final List<WalletTransaction> transactions = new ArrayList<>();
+        String nextCursor = null;
+        for (Entry entry : range) {
+            if (transactions.size() == pageSize) {
+                final WalletTransaction last = transactions.get(transactions.size() - 1);
+                nextCursor = new PageCursor(SCOPE, last.updateTime, last.hash).encode();
+                break;
+            }
+            transactions.add(entry.toWalletTransaction(bestChainHeight));
+        }
+
+        final WalletTransactionList walletTransactions = new WalletTransactionList();
+        walletTransactions.transactions = transactions;
+        walletTransactions.total = total;
+        walletTransactions.nextCursor = nextCursor;
+        return walletTransactions;
+    }
+
+    /**
+     * Converted view of a single transaction, taken from the index when it is up to date.
+     */
+    public WalletTransaction getTransaction(Transaction transaction) {
+        Entry entry = entriesByHash.get(transaction.getHashAsString());
+        if (null == entry || entry.transaction != transaction)
+            entry = put(transaction);
+        return entry.toWalletTransaction(wallet.getLastBlockSeenHeight());
+    }
+
+    /**
+     * Confirmations of the transaction at the given chain height, 0 while it is not in the best chain.
+     */
+    public static int getConfirmations(Transaction transaction, int bestChainHeight) {
+        final TransactionConfidence confidence = transaction.getConfidence();
+        if (null == confidence || TransactionConfidence.ConfidenceType.BUILDING != confidence.getConfidenceType())
+            return 0;
+        return Math.max(0, bestChainHeight - confidence.getAppearedAtChainHeight() + 1);
+    }
+
+    private synchronized void load() {
+        if (loaded)
+            return;
+        loaded = true;
+        final Map<String, Entry> stale = new HashMap<>(entriesByHash);
+        for (Transaction transaction : btcWalletService.getTransactions(true)) {
+            final String hash = transaction.getHashAsString();
+            final Entry entry = stale.remove(hash);
+            if (null == entry || entry.transaction != transaction || entry.updateTime != transaction.getUpdateTime().getTime())
+                put(transaction);
+        }
+        stale.keySet().forEach(hash -> {
+            final Entry removed = entriesByHash.remove(hash);
+            if (null != removed)
+                entriesByUpdateTime.remove(removed);
+        });
+    }
+
+    private synchronized Entry put(Transaction transaction) {
+        final WalletTransaction view = convert(transaction);
+        final Entry entry = new Entry(transaction, view);
+        final Entry previous = entriesByHash.put(entry.hash, entry);
+        if (null != previous)
+            entriesByUpdateTime.remove(previous);
+        entriesByUpdateTime.add(entry);
+        return entry;
+    }
+
+    private WalletTransaction convert(Transaction transaction) {
+        final Coin valueSentFromMe = transaction.getValueSentFromMe(wallet);
+        final Coin valueSentToMe = transaction.getValueSentToMe(wallet);
+        boolean received = false;
+        String addressString = null;
+
+        if (valueSentToMe.isZero()) {
+            for (TransactionOutput output : transaction.getOutputs()) {
+                if (!btcWalletService.isTransactionOutputMine(output)) {
+                    received = false;
+                    if (WalletService.isOutputScriptConvertibleToAddress(output)) {
+                        addressString = WalletService.getAddressStringFromOutput(output);
+                        break;
+                    }
+                }
+            }
+        } else if (valueSentFromMe.isZero()) {
+            received = true;
+            for (TransactionOutput output : transaction.getOutputs()) {
+                if (btcWalletService.isTransactionOutputMine(output) &&
+                        WalletService.isOutputScriptConvertibleToAddress(output)) {
+                    addressString = WalletService.getAddressStringFromOutput(output);
+                    break;
+                }
+            }
+        } else {
+            boolean outgoing = false;
+            for (TransactionOutput output : transaction.getOutputs()) {
+                if (!btcWalletService.isTransactionOutputMine(output)) {
+                    if (WalletService.isOutputScriptConvertibleToAddress(output)) {
+                        addressString = WalletService.getAddressStringFromOutput(output);
+                        outgoing = !(BisqEnvironment.isBaseCurrencySupportingBsq() && bsqWalletService.isTransactionOutputMine(output));
+                        break;
+                    }
+                }
+            }
+
+            if (outgoing) {
+                received = false;
+            }
+        }
+
+        final WalletTransaction walletTransaction = new WalletTransaction();
+        walletTransaction.hash = transaction.getHashAsString();
+        walletTransaction.fee = (transaction.getFee() == null) ? -1 : transaction.getFee().value;
+        walletTransaction.value = transaction.getValue(wallet).value;
+        walletTransaction.valueSentFromMe = valueSentFromMe.value;
+        walletTransaction.valueSentToMe = valueSentToMe.value;
+        walletTransaction.inbound = received;
+        walletTransaction.address = addressString;
+        return walletTransaction;
+    }
+
+    private static class Entry {
+        private final long updateTime;
+        private final String hash;
+        @Nullable
+        private final Transaction transaction;
+        @Nullable
+        private final WalletTransaction view;
+
+        private Entry(Transaction transaction, WalletTransaction view) {
+            this.updateTime = transaction.getUpdateTime().getTime();
+            this.hash = view.hash;
+            this.transaction = transaction;
+            this.view = view;
+        }
+
+        /**
+         * Bound for seeking in the index.
+         */
+        private Entry(long updateTime, String hash) {
+            this.updateTime = updateTime;
+            this.hash = hash;
+            this.transaction = null;
+            this.view = null;
+        }
+
+        private WalletTransaction toWalletTransaction(int bestChainHeight) {
+            final WalletTransaction walletTransaction = new WalletTransaction();
+            walletTransaction.updateTime = updateTime;
+            walletTransaction.hash = hash;
+            walletTransaction.fee = view.fee;
+            walletTransaction.value = view.value;
+            walletTransaction.valueSentFromMe = view.valueSentFromMe;
+            walletTransaction.valueSentToMe = view.valueSentToMe;
+            walletTransaction.confirmations = getConfirmations(transaction, bestChainHeight);
+            walletTransaction.inbound = view.inbound;
+            walletTransaction.address = view.address;
+            return walletTransaction;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package network.bisq.api;
+
+import bisq.core.btc.InsufficientFundsException;
+import bisq.core.btc.Restrictions;
+import org.bitcoinj.core.Coin;
+
+import javax.validation.ValidationException;
+import java.util.Map;
+
+/**
+ * Checks the outputs of a batch withdrawal before any transaction is built, so that invalid batches neither run coin
+ * selection nor take a change address.
+ */
+public final class WithdrawBatchValidator {
+
+    private WithdrawBatchValidator() {
+    }
+
+    /**
+     * Returns the total amount of the outputs. Throws ValidationException for an empty batch or an invalid address,
+     * AmountTooLowException for an output below the dust limit and InsufficientFundsException when the total exceeds
+     * the available balance.
+     */
+    public static Coin validate(Map<String, Coin> amountsByTargetAddress, Coin availableBalance) throws AmountTooLowException, InsufficientFundsException {
+        if (amountsByTargetAddress.isEmpty())
+            throw new ValidationException("List of outputs must not be empty");
+        final BtcAddressValidator addressValidator = new BtcAddressValidator();
+        final Coin minNonDustOutput = Restrictions.getMinNonDustOutput();
+        Coin totalAmount = Coin.ZERO;
+        for (Map.Entry<String, Coin> output : amountsByTargetAddress.entrySet()) {
+            if (!addressValidator.validate(output.getKey()).isValid)
+                throw new ValidationException("Invalid target address: " + output.getKey());
+            if (output.getValue().isLessThan(minNonDustOutput))
+                throw new AmountTooLowException("Amount for " + output.getKey() + " is below the dust limit of " + minNonDustOutput.value);
+            totalAmount = totalAmount.add(output.getValue());
+        }
+        if (totalAmount.compareTo(availableBalance) > 0)
+            throw new InsufficientFundsException("Not enough funds in selected addresses");
+        return totalAmount;
+    }
+}
@@ -0,0 +1,77 @@
+package network.bisq.api;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import lombok.Getter;
+import org.bitcoinj.core.Coin;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived withdrawal fee quotes, so that a withdrawal following a quote does not repeat the coin selection and fee
+ * estimation.
+ * <p>
+ * A quote is only reused for the same source addresses, amount and fee mode, and only while the source addresses hold
+ * the same balance as when it was made. It is used at most once.
+ */
+public class WithdrawQuoteCache {
+
+    public static final long TTL_SECONDS = 60;
+    private static final long MAXIMUM_SIZE = 1000;
+
+    private final Cache<String, Quote> quotes = CacheBuilder.newBuilder()
+            .expireAfterWrite(TTL_SECONDS, TimeUnit.SECONDS)
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+
+    public void put(Quote quote) {
+        quotes.put(quote.id, quote);
+    }
+
+    /**
+     * Removes and returns the quote if it is still valid for the given withdrawal, null otherwise.
+     */
+    @Nullable
+    public Quote take(@Nullable String quoteId, Set<String> sourceAddresses, Coin amount, boolean feeExcluded, Coin availableAmount) {
+        if (null == quoteId)
+            return null;
+        final Quote quote = quotes.getIfPresent(quoteId);
+        if (null == quote)
+            return null;
+        quotes.invalidate(quoteId);
+        if (quote.expiresAt < System.currentTimeMillis()
+                || !quote.sourceAddresses.equals(sourceAddresses)
+                || !quote.amount.equals(amount)
+                || quote.feeExcluded != feeExcluded
+                || !quote.availableAmount.equals(availableAmount))
+            return null;
+        return quote;
+    }
+
+    @Getter
+    public static class Quote {
+        private final String id = UUID.randomUUID().toString();
+        private final long expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TTL_SECONDS);
+        private final Set<String> sourceAddresses;
+        private final Coin amount;
+        private final boolean feeExcluded;
+        private final Coin fee;
+        private final Coin sendersAmount;
+        private final Coin receiverAmount;
+        private final Coin availableAmount;
+
+        Quote(Set<String> sourceAddresses, Coin amount, boolean feeExcluded, Coin fee, Coin sendersAmount, Coin receiverAmount, Coin availableAmount) {
+            this.sourceAddresses = ImmutableSet.copyOf(sourceAddresses);
+            this.amount = amount;
+            this.feeExcluded = feeExcluded;
+            this.fee = fee;
+            this.sendersAmount = sendersAmount;
+            this.receiverAmount = receiverAmount;
+            this.availableAmount = availableAmount;
+        }
+    }
+}
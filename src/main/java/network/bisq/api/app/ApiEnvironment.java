@@ -9,10 +9,24 @@ public class ApiEnvironment extends BisqEnvironment {
 
     private final Integer apiPort;
 
+    private final Integer apiTokenTtl;
+
+    private final Boolean apiTokenSlidingExpiry;
+
+    private final String apiTokenMode;
+
+    private final String apiTokenSecret;
+
     public ApiEnvironment(OptionSet options) {
         super(options);
         apiHost = (String) options.valueOf("apiHost");
         apiPort = (Integer) options.valueOf("apiPort");
+        apiTokenTtl = (Integer) options.valueOf(ApiOptionKeys.OPTION_API_TOKEN_TTL);
+        if (null != apiTokenTtl && 0 >= apiTokenTtl)
+            throw new IllegalArgumentException(ApiOptionKeys.OPTION_API_TOKEN_TTL + " must be a positive number of minutes: " + apiTokenTtl);
+        apiTokenSlidingExpiry = (Boolean) options.valueOf(ApiOptionKeys.OPTION_API_TOKEN_SLIDING_EXPIRY);
+        apiTokenMode = (String) options.valueOf(ApiOptionKeys.OPTION_API_TOKEN_MODE);
+        apiTokenSecret = (String) options.valueOf(ApiOptionKeys.OPTION_API_TOKEN_SECRET);
     }
 
     public String getApiHost() {
@@ -22,5 +36,21 @@ public class ApiEnvironment extends BisqEnvironment {
     public Integer getApiPort() {
         return apiPort;
     }
+
+    public Integer getApiTokenTtl() {
+        return apiTokenTtl;
+    }
+
+    public Boolean getApiTokenSlidingExpiry() {
+        return apiTokenSlidingExpiry;
+    }
+
+    public String getApiTokenMode() {
+        return apiTokenMode;
+    }
+
+    public String getApiTokenSecret() {
+        return apiTokenSecret;
+    }
 }
 
@@ -21,8 +21,11 @@ import com.google.inject.Singleton;
 
 import bisq.common.app.AppModule;
 import network.bisq.api.BtcAddressValidator;
+import network.bisq.api.MarketCatalog;
 import network.bisq.api.service.BisqApiApplication;
+import network.bisq.api.service.SignedTokenService;
 import network.bisq.api.service.TokenRegistry;
+import network.bisq.api.service.TokenService;
 import org.springframework.core.env.Environment;
 
 public class ApiModule extends AppModule {
@@ -36,7 +39,12 @@ public class ApiModule extends AppModule {
         // added for API usage
         bind(BisqApiApplication.class).in(Singleton.class);
         bind(BtcAddressValidator.class);
-        bind(TokenRegistry.class).in(Singleton.class);
-        bind(ApiEnvironment.class).toInstance((ApiEnvironment) environment);
+        bind(MarketCatalog.class).in(Singleton.class);
+        final ApiEnvironment apiEnvironment = (ApiEnvironment) environment;
+        if (SignedTokenService.MODE.equals(apiEnvironment.getApiTokenMode()))
+            bind(TokenService.class).to(SignedTokenService.class).in(Singleton.class);
+        else
+            bind(TokenService.class).to(TokenRegistry.class).in(Singleton.class);
+        bind(ApiEnvironment.class).toInstance(apiEnvironment);
     }
 }
@@ -11,5 +11,17 @@ public class ApiOptionCustomizer {
         parser.accepts(ApiOptionKeys.OPTION_API_HOST, "API hostname (default: value of env variable BISQ_API_HOST or 127.0.0.1)")
                 .withRequiredArg()
                 .ofType(String.class);
+        parser.accepts(ApiOptionKeys.OPTION_API_TOKEN_TTL, "Lifetime of API access tokens in minutes (default: 30)")
+                .withRequiredArg()
+                .ofType(int.class);
+        parser.accepts(ApiOptionKeys.OPTION_API_TOKEN_SLIDING_EXPIRY, "Extend the lifetime of API access tokens on every use (default: false)")
+                .withRequiredArg()
+                .ofType(boolean.class);
+        parser.accepts(ApiOptionKeys.OPTION_API_TOKEN_MODE, "API access token mode: registry keeps tokens in memory, signed issues self-contained signed tokens (default: registry)")
+                .withRequiredArg()
+                .ofType(String.class);
+        parser.accepts(ApiOptionKeys.OPTION_API_TOKEN_SECRET, "Secret used to sign API access tokens in signed mode (default: random secret stored in the app data directory)")
+                .withRequiredArg()
+                .ofType(String.class);
     }
 }
@@ -3,4 +3,8 @@ package network.bisq.api.app;
 public class ApiOptionKeys {
     public static final String OPTION_API_PORT = "apiPort";
     public static final String OPTION_API_HOST = "apiHost";
+    public static final String OPTION_API_TOKEN_TTL = "apiTokenTtl";
+    public static final String OPTION_API_TOKEN_SLIDING_EXPIRY = "apiTokenSlidingExpiry";
+    public static final String OPTION_API_TOKEN_MODE = "apiTokenMode";
+    public static final String OPTION_API_TOKEN_SECRET = "apiTokenSecret";
 }
@@ -0,0 +1,21 @@
+package network.bisq.api.model;
+
+import bisq.core.offer.OfferPayload;
+import network.bisq.api.model.validation.StringEnumeration;
+
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class CancelOffers {
+
+    @Size(max = 1000)
+    public List<String> offerIds;
+
+    public String market;
+
+    @StringEnumeration(enumClass = OfferPayload.Direction.class)
+    public String direction;
+
+    public String paymentAccountId;
+
+}
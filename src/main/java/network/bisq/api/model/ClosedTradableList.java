@@ -1,9 +1,13 @@
 package network.bisq.api.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class ClosedTradableList {
 
     public List<ClosedTradableDetails> closedTradables;
     public Integer total;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String nextCursor;
 }
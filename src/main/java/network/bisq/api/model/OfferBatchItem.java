@@ -0,0 +1,31 @@
+package network.bisq.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OfferBatchItem {
+
+    /**
+     * Position of the offer in a batch creation request, since offers created without an offerId have none when they
+     * fail.
+     */
+    public Integer index;
+    public String offerId;
+    public int status;
+    public String error;
+    /**
+     * Set when the offer was left alone because it does not match the filters of a batch cancellation.
+     */
+    public Boolean skipped;
+    public OfferDetail offer;
+
+    public OfferBatchItem() {
+    }
+
+    public OfferBatchItem(String offerId, int status, String error, OfferDetail offer) {
+        this.offerId = offerId;
+        this.status = status;
+        this.error = error;
+        this.offer = offer;
+    }
+}
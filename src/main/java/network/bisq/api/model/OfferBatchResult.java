@@ -0,0 +1,13 @@
+package network.bisq.api.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OfferBatchResult {
+
+    public List<OfferBatchItem> results = new ArrayList<>();
+    public int succeeded;
+    public int skipped;
+    public int failed;
+
+}
@@ -1,10 +1,14 @@
 package network.bisq.api.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class OfferList {
 
     public List<OfferDetail> offers;
     public long total;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String nextCursor;
 
 }
@@ -39,10 +39,12 @@ public class TradeDetails {
     public String counterCurrencyTxId;
 
     public TradeDetails(Trade trade) {
+        this(trade, null == trade.getOffer() ? null : new OfferDetail(trade.getOffer()));
+    }
+
+    public TradeDetails(Trade trade, OfferDetail offer) {
         this.id = trade.getId();
-        final Offer offer = trade.getOffer();
-        if (null != offer)
-            this.offer = new OfferDetail(offer);
+        this.offer = offer;
         final Contract contract = trade.getContract();
         if (null != contract) {
             this.buyerPaymentAccount = PaymentAccountHelper.toRestModel(contract.getBuyerPaymentAccountPayload());
@@ -17,6 +17,8 @@
 
 package network.bisq.api.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,6 +26,8 @@ public class TradeList {
 
     public List<TradeDetails> trades = new ArrayList<>();
     public long total;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String nextCursor;
 
     public TradeList() {
     }
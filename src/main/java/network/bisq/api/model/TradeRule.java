@@ -0,0 +1,41 @@
+package network.bisq.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import network.bisq.api.model.validation.NotNullItems;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Trade operation performed by the API as soon as a trade matching the rule reaches the state the operation requires.
+ * Criteria left empty match every trade.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TradeRule {
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public String id;
+
+    @NotNull
+    public Action action;
+
+    public String market;
+
+    public String paymentMethod;
+
+    public boolean cryptoOnly;
+
+    @Min(0)
+    public int minConfirmations;
+
+    @NotNullItems
+    public List<String> tradeIds;
+
+    public enum Action {
+        PAYMENT_STARTED,
+        PAYMENT_RECEIVED,
+        MOVE_FUNDS_TO_BISQ_WALLET
+    }
+}
@@ -0,0 +1,10 @@
+package network.bisq.api.model;
+
+import java.util.List;
+
+public class TradeRuleList {
+
+    public List<TradeRule> tradeRules;
+    public long total;
+
+}
@@ -0,0 +1,23 @@
+package network.bisq.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import bisq.core.trade.Trade;
+import lombok.AllArgsConstructor;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+public class TradeStatus {
+
+    public String id;
+
+    public Trade.State state;
+
+    public Trade.DisputeState disputeState;
+
+    public Trade.TradePeriodState tradePeriodState;
+
+    public TradeStatus(Trade trade) {
+        this(trade.getId(), trade.getState(), trade.getDisputeState(), trade.getTradePeriodState());
+    }
+
+}
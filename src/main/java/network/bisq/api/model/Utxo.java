@@ -0,0 +1,23 @@
+package network.bisq.api.model;
+
+import bisq.core.btc.AddressEntry;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class Utxo {
+
+    public String txHash;
+
+    public long outputIndex;
+
+    public long value;
+
+    public String address;
+
+    public int confirmations;
+
+    public AddressEntry.Context context;
+
+    public String offerId;
+
+}
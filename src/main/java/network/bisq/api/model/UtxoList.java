@@ -0,0 +1,16 @@
+package network.bisq.api.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UtxoList {
+
+    public List<Utxo> utxos = new ArrayList<>();
+
+    public long total;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String nextCursor;
+}
@@ -1,5 +1,7 @@
 package network.bisq.api.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,6 +10,7 @@ public class WalletTransactionList {
     public List<WalletTransaction> transactions = new ArrayList<>();
 
     public int total;
-}
-
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String nextCursor;
+}
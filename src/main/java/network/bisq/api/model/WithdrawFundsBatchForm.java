@@ -0,0 +1,23 @@
+package network.bisq.api.model;
+
+import network.bisq.api.model.validation.NotNullItems;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class WithdrawFundsBatchForm {
+
+    public static final int MAX_OUTPUTS = 500;
+
+    @NotNullItems
+    @NotEmpty
+    public List<String> sourceAddresses;
+
+    @Valid
+    @NotNullItems
+    @NotEmpty
+    @Size(max = MAX_OUTPUTS)
+    public List<WithdrawOutput> outputs;
+}
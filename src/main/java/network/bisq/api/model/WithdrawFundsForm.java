@@ -17,4 +17,6 @@ public class WithdrawFundsForm {
 
     @NotEmpty
     public String targetAddress;
+
+    public String quoteId;
 }
@@ -0,0 +1,12 @@
+package network.bisq.api.model;
+
+import lombok.AllArgsConstructor;
+
+@AllArgsConstructor
+public class WithdrawFundsResult {
+
+    public String txHash;
+    public long fee;
+    public int size;
+
+}
@@ -0,0 +1,14 @@
+package network.bisq.api.model;
+
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.constraints.Min;
+
+public class WithdrawOutput {
+
+    @NotEmpty
+    public String address;
+
+    @Min(1)
+    public long amount;
+}
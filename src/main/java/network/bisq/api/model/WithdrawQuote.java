@@ -0,0 +1,14 @@
+package network.bisq.api.model;
+
+import lombok.AllArgsConstructor;
+
+@AllArgsConstructor
+public class WithdrawQuote {
+
+    public String quoteId;
+    public long fee;
+    public long sendersAmount;
+    public long receiverAmount;
+    public long expiresAt;
+
+}
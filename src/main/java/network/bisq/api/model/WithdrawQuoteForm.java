@@ -0,0 +1,17 @@
+package network.bisq.api.model;
+
+import network.bisq.api.model.validation.NotNullItems;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import java.util.List;
+
+public class WithdrawQuoteForm {
+
+    public long amount;
+
+    public boolean feeExcluded;
+
+    @NotNullItems
+    @NotEmpty
+    public List<String> sourceAddresses;
+}
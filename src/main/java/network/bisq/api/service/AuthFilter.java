@@ -11,11 +11,11 @@ public class AuthFilter implements Filter {
 
 
     private final BtcWalletService btcWalletService;
-    private final TokenRegistry tokenRegistry;
+    private final TokenService tokenService;
 
-    public AuthFilter(BtcWalletService btcWalletService, TokenRegistry tokenRegistry) {
+    public AuthFilter(BtcWalletService btcWalletService, TokenService tokenService) {
         this.btcWalletService = btcWalletService;
-        this.tokenRegistry = tokenRegistry;
+        this.tokenService = tokenService;
     }
 
     @Override
@@ -45,7 +45,7 @@ public class AuthFilter implements Filter {
             httpServletResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return;
         }
-        if (tokenRegistry.isValidToken(authorizationHeader))
+        if (tokenService.isValidToken(authorizationHeader))
             filterChain.doFilter(servletRequest, servletResponse);
         else
             httpServletResponse.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
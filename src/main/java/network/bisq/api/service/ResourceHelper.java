@@ -2,12 +2,35 @@ package network.bisq.api.service;
 
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.dropwizard.jersey.validation.ValidationErrorMessage;
+import network.bisq.api.EventJournal;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.OutboundEvent;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public final class ResourceHelper {
 
+    private static final long HEARTBEAT_INTERVAL_SECONDS = 15;
+    private static final OutboundEvent HEARTBEAT = new OutboundEvent.Builder().comment("heartbeat").build();
+    private static final ScheduledExecutorService HEARTBEAT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("event-heartbeat")
+            .setDaemon(true)
+            .build());
+
     private ResourceHelper() {
     }
 
@@ -16,4 +39,73 @@ public final class ResourceHelper {
         final ImmutableList<String> list = null == message ? ImmutableList.of() : ImmutableList.of(message);
         return Response.status(status).entity(new ValidationErrorMessage(list));
     }
+
+    /**
+     * Answers 304 Not Modified if the client already holds the given version of the resource, otherwise builds the
+     * entity and tags it. The query string is part of the tag because filtered views of a collection differ.
+     */
+    public static Response toConditionalResponse(Request request, UriInfo uriInfo, String version, Supplier<Object> entity) {
+        final String query = uriInfo.getRequestUri().getRawQuery();
+        final EntityTag entityTag = new EntityTag(null == query ? version : version + "-" + Integer.toHexString(query.hashCode()));
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (null != notModified)
+            return notModified.build();
+        return Response.ok(entity.get()).tag(entityTag).build();
+    }
+
+    /**
+     * Opens a server-sent event stream fed by the given subscription. A comment heartbeat is written every
+     * HEARTBEAT_INTERVAL_SECONDS, which keeps proxies from timing out idle streams and detects disconnected clients
+     * that no event would reach. The subscription is cancelled as soon as the output is closed.
+     */
+    public static EventOutput openEventStream(Function<EventJournal.Listener<Object>, Runnable> subscribe) {
+        final EventOutput eventOutput = new EventOutput();
+        final Runnable unsubscribe = subscribe.apply(toEventListener(eventOutput));
+        final AtomicReference<ScheduledFuture<?>> heartbeat = new AtomicReference<>();
+        heartbeat.set(HEARTBEAT_SCHEDULER.scheduleWithFixedDelay(() -> {
+            if (!eventOutput.isClosed()) {
+                try {
+                    eventOutput.write(HEARTBEAT);
+                    return;
+                } catch (IOException e) {
+                    closeQuietly(eventOutput);
+                }
+            }
+            unsubscribe.run();
+            final ScheduledFuture<?> future = heartbeat.get();
+            if (null != future)
+                future.cancel(false);
+        }, HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS));
+        return eventOutput;
+    }
+
+    /**
+     * Listener writing journal events as JSON server-sent events. Throws once the client has disconnected, which
+     * makes the journal drop the subscription.
+     */
+    public static <T> EventJournal.Listener<T> toEventListener(EventOutput eventOutput) {
+        return event -> {
+            if (eventOutput.isClosed())
+                throw new IOException("Event output closed");
+            final OutboundEvent outboundEvent = new OutboundEvent.Builder()
+                    .id(event.getId())
+                    .name(event.getName())
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(Object.class, event.getData())
+                    .build();
+            try {
+                eventOutput.write(outboundEvent);
+            } catch (IOException e) {
+                closeQuietly(eventOutput);
+                throw e;
+            }
+        };
+    }
+
+    private static void closeQuietly(EventOutput eventOutput) {
+        try {
+            eventOutput.close();
+        } catch (IOException ignored) {
+        }
+    }
 }
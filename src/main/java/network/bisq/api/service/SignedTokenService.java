@@ -0,0 +1,165 @@
+package network.bisq.api.service;
+
+import com.google.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import network.bisq.api.app.ApiEnvironment;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stateless access tokens of the form {@code <expiry>.<nonce>.<signature>}, signed with HMAC-SHA256.
+ * <p>
+ * The signing key is derived from the secret given with {@code --apiTokenSecret}, or else from a random secret created
+ * once in the app data directory and readable by its owner only. Tokens therefore validate right after a restart and
+ * on every process configured with the same secret or sharing the data directory, without anyone logging in there.
+ * The secret file is left out of backups. {@link #clear()} replaces the secret file, other processes sharing it pick
+ * the new one up on restart. A configured secret cannot be rotated at runtime, so there clear() only rejects tokens
+ * issued before it on this process.
+ */
+@Slf4j
+public class SignedTokenService implements TokenService {
+
+    public static final String MODE = "signed";
+    public static final String SECRET_FILE_NAME = "api_token_secret";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int DEFAULT_TTL_MINUTES = 30;
+    private static final int SECRET_LENGTH = 32;
+    private static final byte[] KEY_DERIVATION_LABEL = "bisq-api-access-token".getBytes(StandardCharsets.UTF_8);
+
+    private final long ttl;
+    private final SecureRandom random = new SecureRandom();
+    private final Path secretFile;
+    private volatile SecretKeySpec signingKey;
+    private volatile long notBefore;
+
+    @Inject
+    public SignedTokenService(ApiEnvironment environment) {
+        this.ttl = TimeUnit.MINUTES.toMillis(null == environment.getApiTokenTtl() ? DEFAULT_TTL_MINUTES : environment.getApiTokenTtl());
+        final String configuredSecret = environment.getApiTokenSecret();
+        if (null != configuredSecret && !configuredSecret.isEmpty()) {
+            this.secretFile = null;
+            this.signingKey = deriveKey(configuredSecret.getBytes(StandardCharsets.UTF_8));
+        } else {
+            this.secretFile = Paths.get(environment.getAppDataDir(), SECRET_FILE_NAME);
+            this.signingKey = deriveKey(loadOrCreateSecret(secretFile));
+        }
+    }
+
+    @Override
+    public String generateToken() {
+        final byte[] nonce = new byte[16];
+        random.nextBytes(nonce);
+        final String payload = (System.currentTimeMillis() + ttl) + "." + encode(nonce);
+        return payload + "." + encode(sign(signingKey, payload));
+    }
+
+    @Override
+    public boolean isValidToken(String token) {
+        if (null == token)
+            return false;
+        final int signatureSeparator = token.lastIndexOf('.');
+        final int expirySeparator = token.indexOf('.');
+        if (0 >= expirySeparator || expirySeparator == signatureSeparator)
+            return false;
+        final String payload = token.substring(0, signatureSeparator);
+        final byte[] signature;
+        final long expiry;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(signatureSeparator + 1));
+            expiry = Long.parseLong(token.substring(0, expirySeparator));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (!MessageDigest.isEqual(sign(signingKey, payload), signature))
+            return false;
+        final long now = System.currentTimeMillis();
+        return now <= expiry && expiry - ttl >= notBefore;
+    }
+
+    /**
+     * Replaces the secret file and its key, or with a configured secret rejects tokens issued before now.
+     */
+    @Override
+    public synchronized void clear() {
+        if (null == secretFile) {
+            notBefore = System.currentTimeMillis();
+            return;
+        }
+        final byte[] secret = newSecret();
+        try {
+            writeSecret(secretFile, secret);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to replace API token secret " + secretFile, e);
+        }
+        signingKey = deriveKey(secret);
+    }
+
+    private byte[] loadOrCreateSecret(Path file) {
+        try {
+            if (Files.exists(file)) {
+                final byte[] secret = Files.readAllBytes(file);
+                if (SECRET_LENGTH <= secret.length)
+                    return secret;
+                log.warn("Replacing API token secret {} that is too short", file);
+            }
+            final byte[] secret = newSecret();
+            writeSecret(file, secret);
+            return secret;
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read or create API token secret " + file, e);
+        }
+    }
+
+    private byte[] newSecret() {
+        final byte[] secret = new byte[SECRET_LENGTH];
+        random.nextBytes(secret);
+        return secret;
+    }
+
+    private static void writeSecret(Path file, byte[] secret) throws IOException {
+        final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tempFile);
+        try {
+            Files.createFile(tempFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createFile(tempFile);
+        }
+        Files.write(tempFile, secret);
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static SecretKeySpec deriveKey(byte[] secret) {
+        return new SecretKeySpec(sign(new SecretKeySpec(secret, ALGORITHM), KEY_DERIVATION_LABEL), ALGORITHM);
+    }
+
+    private static byte[] sign(SecretKeySpec key, String payload) {
+        return sign(key, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] sign(SecretKeySpec key, byte[] data) {
+        try {
+            final Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
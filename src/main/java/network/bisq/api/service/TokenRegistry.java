@@ -1,49 +1,90 @@
 package network.bisq.api.service;
 
-import java.util.HashMap;
-import java.util.Iterator;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import network.bisq.api.app.ApiEnvironment;
+
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory access token store. Validation is a single concurrent map lookup, expired tokens are removed by a
+ * background sweeper. With sliding expiry every successful validation extends the lifetime of the token.
+ */
+public class TokenRegistry implements TokenService {
 
-public class TokenRegistry {
+    private static final int DEFAULT_TTL_MINUTES = 30;
+    private static final long MAX_SWEEP_PERIOD = TimeUnit.MINUTES.toMillis(1);
 
-    private static final long TTL = 30 * 60 * 1000;
+    private final Map<String, Token> tokens = new ConcurrentHashMap<>();
+    private final long ttl;
+    private final boolean slidingExpiry;
 
-    private Map<String, Long> tokens = new HashMap<>();
+    @Inject
+    public TokenRegistry(ApiEnvironment environment) {
+        this(TimeUnit.MINUTES.toMillis(null == environment.getApiTokenTtl() ? DEFAULT_TTL_MINUTES : environment.getApiTokenTtl()),
+                Boolean.TRUE.equals(environment.getApiTokenSlidingExpiry()));
+    }
 
+    public TokenRegistry(long ttl, boolean slidingExpiry) {
+        if (0 >= ttl)
+            throw new IllegalArgumentException("Token lifetime must be positive: " + ttl);
+        this.ttl = ttl;
+        this.slidingExpiry = slidingExpiry;
+        final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("token-sweeper")
+                .setDaemon(true)
+                .build());
+        final long sweepPeriod = Math.max(1, Math.min(ttl, MAX_SWEEP_PERIOD));
+        sweeper.scheduleAtFixedRate(this::removeTimeoutTokens, sweepPeriod, sweepPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
     public String generateToken() {
+        final Token token = new Token(System.currentTimeMillis() + ttl);
         String uuid;
         do {
             uuid = UUID.randomUUID().toString();
-        } while (tokens.containsKey(uuid));
-        tokens.put(uuid, System.currentTimeMillis());
-        removeTimeoutTokens();
+        } while (null != tokens.putIfAbsent(uuid, token));
         return uuid;
     }
 
+    @Override
     public boolean isValidToken(String token) {
-        final Long createDate = tokens.get(token);
-        if (null == createDate || isTimeout(createDate)) {
-            tokens.remove(token);
+        if (null == token)
+            return false;
+        final Token entry = tokens.get(token);
+        if (null == entry)
+            return false;
+        final long now = System.currentTimeMillis();
+        if (entry.expiresAt < now) {
+            tokens.remove(token, entry);
             return false;
-        } else {
-            return true;
         }
-    }
-
-    private boolean isTimeout(Long createDate) {
-        return System.currentTimeMillis() - createDate > TTL;
+        if (slidingExpiry)
+            entry.expiresAt = now + ttl;
+        return true;
     }
 
     private void removeTimeoutTokens() {
-        final Iterator<Long> iterator = tokens.values().iterator();
-        while (iterator.hasNext()) {
-            if (isTimeout(iterator.next()))
-                iterator.remove();
-        }
+        final long now = System.currentTimeMillis();
+        tokens.values().removeIf(token -> token.expiresAt < now);
     }
 
+    @Override
     public void clear() {
         tokens.clear();
     }
+
+    private static class Token {
+        private volatile long expiresAt;
+
+        private Token(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
 }
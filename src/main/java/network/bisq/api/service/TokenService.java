@@ -0,0 +1,16 @@
+package network.bisq.api.service;
+
+/**
+ * Issues and validates the access tokens returned by the authenticate and change password endpoints.
+ */
+public interface TokenService {
+
+    String generateToken();
+
+    boolean isValidToken(String token);
+
+    /**
+     * Invalidates all tokens issued so far.
+     */
+    void clear();
+}
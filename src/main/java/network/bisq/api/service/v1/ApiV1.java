@@ -70,6 +70,11 @@ public class ApiV1 {
         return new PreferencesResource(bisqProxy);
     }
 
+    @Path("trade-rules")
+    public TradeRuleResource getTradeRuleResource() {
+        return new TradeRuleResource(bisqProxy);
+    }
+
     @Path("trades")
     public TradeResource getTradeResource() {
         return new TradeResource(bisqProxy);
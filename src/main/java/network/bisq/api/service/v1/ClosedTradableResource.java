@@ -1,15 +1,30 @@
 package network.bisq.api.service.v1;
 
 import network.bisq.api.BisqProxy;
+import network.bisq.api.HistoryExporter;
+import network.bisq.api.Page;
+import network.bisq.api.Pager;
+import network.bisq.api.model.ClosedTradableDetails;
 import network.bisq.api.model.ClosedTradableList;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.Authorization;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.ws.rs.GET;
+import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+
+import static network.bisq.api.service.ResourceHelper.toConditionalResponse;
 
 @Slf4j
 @Api(value = "closed-tradables", authorizations = @Authorization(value = "accessToken"))
@@ -22,13 +37,41 @@ public class ClosedTradableResource {
         this.bisqProxy = bisqProxy;
     }
 
-    @ApiOperation("List portfolio history")
+    @ApiOperation(value = "List portfolio history", response = ClosedTradableList.class, notes = "Newest first. From and to are epoch millis, " +
+            "to is exclusive. Currency and status are matched ignoring case, status against the status returned in the listing. Pass nextCursor " +
+            "from the previous response as cursor to fetch the following page. Total is the number of closed tradables matching the filters.")
+    @GET
+    public Response listClosedTrades(@Context Request request,
+                                     @Context UriInfo uriInfo,
+                                     @QueryParam("from") Long from,
+                                     @QueryParam("to") Long to,
+                                     @QueryParam("currency") String currency,
+                                     @QueryParam("status") String status,
+                                     @QueryParam("cursor") String cursor,
+                                     @Min(1) @Max(Pager.MAX_LIMIT) @QueryParam("limit") Integer limit) {
+        return toConditionalResponse(request, uriInfo, bisqProxy.getCollectionVersions().getClosedTradablesVersion(), () -> {
+            final Page<ClosedTradableDetails> page = bisqProxy.findClosedTradables(from, to, currency, status, cursor, limit);
+            final ClosedTradableList list = new ClosedTradableList();
+            list.closedTradables = page.getItems();
+            list.total = page.getTotal();
+            list.nextCursor = page.getNextCursor();
+            return list;
+        });
+    }
+
+    @ApiOperation(value = "Export portfolio history", notes = "Streams closed tradables oldest first, one per line, as NDJSON (default) or CSV. " +
+            "From and to are epoch millis, to is exclusive.")
     @GET
-    public ClosedTradableList listClosedTrades() {
-        final ClosedTradableList list = new ClosedTradableList();
-        list.closedTradables = bisqProxy.getClosedTradableList();
-        list.total = list.closedTradables.size();
-        return list;
+    @Path("/export")
+    @Produces({HistoryExporter.NDJSON_MEDIA_TYPE, HistoryExporter.CSV_MEDIA_TYPE})
+    public Response exportClosedTrades(@QueryParam("from") Long from,
+                                       @QueryParam("to") Long to,
+                                       @QueryParam("format") HistoryExporter.Format format) {
+        final HistoryExporter.Format exportFormat = null == format ? HistoryExporter.Format.NDJSON : format;
+        final StreamingOutput output = outputStream -> bisqProxy.writeClosedTradableHistory(from, to, exportFormat, outputStream);
+        return Response.ok(output, exportFormat.getMediaType())
+                .header("Content-Disposition", "attachment; filename=\"closed-tradables." + exportFormat.getFileExtension() + "\"")
+                .build();
     }
 
 }
@@ -11,7 +11,13 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import static network.bisq.api.service.ResourceHelper.toConditionalResponse;
 
 @Api(value = "currencies", authorizations = @Authorization(value = "accessToken"))
 @Produces(MediaType.APPLICATION_JSON)
@@ -23,10 +29,10 @@ public class CurrencyResource {
         this.bisqProxy = bisqProxy;
     }
 
-    @ApiOperation("List available currencies")
+    @ApiOperation(value = "List available currencies", response = CurrencyList.class)
     @GET
-    public CurrencyList getCurrencyList() {
-        return bisqProxy.getCurrencyList();
+    public Response getCurrencyList(@Context Request request, @Context UriInfo uriInfo) {
+        return toConditionalResponse(request, uriInfo, bisqProxy.getCollectionVersions().getStaticVersion(), bisqProxy.getMarketCatalog()::getCurrencyListJson);
     }
 
     @ApiOperation(value = "Get market prices", notes = "If currencyCodes is not provided then currencies from preferences are used.")
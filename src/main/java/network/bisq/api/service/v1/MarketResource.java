@@ -8,7 +8,13 @@ import io.swagger.annotations.Authorization;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import static network.bisq.api.service.ResourceHelper.toConditionalResponse;
 
 @Api(value = "markets", authorizations = @Authorization(value = "accessToken"))
 @Produces(MediaType.APPLICATION_JSON)
@@ -20,9 +26,9 @@ public class MarketResource {
         this.bisqProxy = bisqProxy;
     }
 
-    @ApiOperation("List markets")
+    @ApiOperation(value = "List markets", response = MarketList.class)
     @GET
-    public MarketList find() {
-        return bisqProxy.getMarketList();
+    public Response find(@Context Request request, @Context UriInfo uriInfo) {
+        return toConditionalResponse(request, uriInfo, bisqProxy.getCollectionVersions().getStaticVersion(), bisqProxy.getMarketCatalog()::getMarketListJson);
     }
 }
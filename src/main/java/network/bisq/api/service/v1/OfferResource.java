@@ -13,18 +13,33 @@ import lombok.extern.slf4j.Slf4j;
 import network.bisq.api.*;
 import network.bisq.api.NotFoundException;
 import network.bisq.api.model.*;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.SseFeature;
 import org.hibernate.validator.constraints.NotEmpty;
 
 import javax.validation.Valid;
 import javax.validation.ValidationException;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import javax.ws.rs.*;
 import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-import static java.util.stream.Collectors.toList;
+import static network.bisq.api.service.ResourceHelper.openEventStream;
+import static network.bisq.api.service.ResourceHelper.toConditionalResponse;
 import static network.bisq.api.service.ResourceHelper.toValidationErrorResponse;
 
 @Api(value = "offers", authorizations = @Authorization(value = "accessToken"))
@@ -32,6 +47,8 @@ import static network.bisq.api.service.ResourceHelper.toValidationErrorResponse;
 @Slf4j
 public class OfferResource {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final BisqProxy bisqProxy;
 
     public OfferResource(BisqProxy bisqProxy) {
@@ -39,20 +56,44 @@ public class OfferResource {
         this.bisqProxy = bisqProxy;
     }
 
-    @ApiOperation("Find offers")
+    @ApiOperation(value = "Find offers", notes = "Supported sort values are date, price and amount, prefixed with '-' for descending order. " +
+            "Pass nextCursor from the previous response as cursor to fetch the following page, limit is at most 1000. Total is the number of offers " +
+            "matching the filters. Market based offers are sorted by the market price at the time each page is built, so when the market price moves " +
+            "between pages they may be skipped or repeated.", response = OfferList.class)
+    @GET
+    public Response find(@Context Request request,
+                         @Context UriInfo uriInfo,
+                         @QueryParam("market") String market,
+                         @QueryParam("direction") OfferPayload.Direction direction,
+                         @QueryParam("paymentMethod") String paymentMethod,
+                         @QueryParam("minPrice") Long minPrice,
+                         @QueryParam("maxPrice") Long maxPrice,
+                         @QueryParam("minAmount") Long minAmount,
+                         @QueryParam("maxAmount") Long maxAmount,
+                         @QueryParam("sort") String sort,
+                         @QueryParam("cursor") String cursor,
+                         @Min(1) @Max(Pager.MAX_LIMIT) @QueryParam("limit") Integer limit) {
+        return toConditionalResponse(request, uriInfo, bisqProxy.getCollectionVersions().getOffersVersion(), () -> {
+            final Page<Offer> page = bisqProxy.findOffers(market, direction, paymentMethod, minPrice, maxPrice, minAmount, maxAmount, sort, cursor, limit);
+            return (StreamingOutput) outputStream -> bisqProxy.writeOfferList(page, outputStream);
+        });
+    }
+
+    @ApiOperation(value = "Stream offer book changes", notes = "Server-sent events. A snapshot event with the complete offer book is sent first, " +
+            "followed by added and removed events. Reconnecting with Last-Event-ID replays missed events when possible, otherwise a new snapshot is sent. " +
+            "A comment heartbeat is sent every 15 seconds.")
     @GET
-    public OfferList find() {
-        final OfferList offerList = new OfferList();
-        offerList.offers = bisqProxy.getOfferList().stream().map(OfferDetail::new).collect(toList());
-        offerList.total = offerList.offers.size();
-        return offerList;
+    @Path("/stream")
+    @Produces(SseFeature.SERVER_SENT_EVENTS)
+    public EventOutput streamOffers(@HeaderParam(SseFeature.LAST_EVENT_ID_HEADER) String lastEventId) {
+        return openEventStream(listener -> bisqProxy.subscribeToOfferBook(lastEventId, listener));
     }
 
     @ApiOperation("Get offer details")
     @GET
     @Path("/{id}")
     public OfferDetail getOfferById(@NotEmpty @PathParam("id") String id) {
-        return new OfferDetail(bisqProxy.getOffer(id));
+        return bisqProxy.getOfferDetail(bisqProxy.getOffer(id));
     }
 
     @ApiOperation("Cancel offer")
@@ -78,6 +119,33 @@ public class OfferResource {
 
     }
 
+    @ApiOperation(value = "Cancel offers in batch", response = OfferBatchResult.class,
+            notes = "Cancels the given offers, or all open offers matching market, direction and paymentAccountId. " +
+                    "Filters also apply to the given offerIds, there is a result for every given id: offers not matching the filters are " +
+                    "reported with status 422 and skipped set. All cancellations run concurrently.")
+    @POST
+    @Path("/cancel")
+    public void cancelOffers(@Suspended final AsyncResponse asyncResponse, @Valid @NotNull CancelOffers data) {
+        final OfferPayload.Direction direction = null == data.direction ? null : OfferPayload.Direction.valueOf(data.direction);
+        final Map<String, CompletableFuture<Void>> futures = bisqProxy.offerCancelBatch(data.offerIds, data.market, direction, data.paymentAccountId);
+        final List<CompletableFuture<OfferBatchItem>> items = new ArrayList<>(futures.size());
+        futures.forEach((id, future) -> items.add(future.handle((result, e) -> {
+            if (null == e)
+                return new OfferBatchItem(id, 200, null, null);
+            final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof NotFoundException)
+                return new OfferBatchItem(id, 404, cause.getMessage(), null);
+            if (cause instanceof ValidationException) {
+                final OfferBatchItem item = new OfferBatchItem(id, 422, cause.getMessage(), null);
+                item.skipped = true;
+                return item;
+            }
+            log.error("Unable to remove offer: " + id, cause);
+            return new OfferBatchItem(id, 500, cause.getMessage(), null);
+        })));
+        resumeWithBatchResult(asyncResponse, items);
+    }
+
     @ApiOperation(value = "Create offer", response = OfferDetail.class)
     @POST
     public void createOffer(@Suspended final AsyncResponse asyncResponse, @Valid OfferToCreate offer) {
@@ -95,23 +163,13 @@ public class OfferResource {
                 marketPriceMargin,
                 offer.marketPair,
                 offer.fixedPrice, offer.buyerSecurityDeposit);
-        completableFuture.thenApply(response -> asyncResponse.resume(new OfferDetail(response)))
+        completableFuture.thenApply(response -> asyncResponse.resume(bisqProxy.getOfferDetail(response)))
                 .exceptionally(e -> {
                     final Throwable cause = e.getCause();
                     final Response.ResponseBuilder responseBuilder;
-                    if (cause instanceof ValidationException) {
-                        final int status = 422;
+                    final int status = getCreateOfferErrorStatus(cause);
+                    if (500 != status) {
                         responseBuilder = toValidationErrorResponse(cause, status);
-                    } else if (cause instanceof IncompatiblePaymentAccountException) {
-                        responseBuilder = toValidationErrorResponse(cause, 423);
-                    } else if (cause instanceof NoAcceptedArbitratorException) {
-                        responseBuilder = toValidationErrorResponse(cause, 424);
-                    } else if (cause instanceof PaymentAccountNotFoundException) {
-                        responseBuilder = toValidationErrorResponse(cause, 425);
-                    } else if (cause instanceof AmountTooHighException) {
-                        responseBuilder = toValidationErrorResponse(cause, 426);
-                    } else if (cause instanceof InsufficientMoneyException) {
-                        responseBuilder = toValidationErrorResponse(cause, 427);
                     } else {
                         final String message = cause.getMessage();
                         responseBuilder = Response.status(500);
@@ -123,13 +181,69 @@ public class OfferResource {
                 });
     }
 
+    @ApiOperation(value = "Create offers in batch", response = OfferBatchResult.class,
+            notes = "All offers are validated before any of them is placed. Each result carries the HTTP status the single offer endpoint would have returned " +
+                    "and the index of the offer in the request. Duplicate offerIds are rejected.")
+    @POST
+    @Path("/batch")
+    public void createOffers(@Suspended final AsyncResponse asyncResponse, @Valid @NotEmpty @Size(max = MAX_BATCH_SIZE) List<OfferToCreate> offers) {
+        final List<CompletableFuture<Offer>> futures = bisqProxy.offerMakeBatch(offers);
+        final List<CompletableFuture<OfferBatchItem>> items = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            final int index = i;
+            final OfferToCreate offer = offers.get(i);
+            items.add(futures.get(i).handle((created, e) -> {
+                final OfferBatchItem item;
+                if (null == e) {
+                    item = new OfferBatchItem(created.getId(), 200, null, bisqProxy.getOfferDetail(created));
+                } else {
+                    final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    final int status = getCreateOfferErrorStatus(cause);
+                    if (500 == status)
+                        log.error("Unable to create offer: " + Json.pretty(offer), cause);
+                    item = new OfferBatchItem(offer.offerId, status, cause.getMessage(), null);
+                }
+                item.index = index;
+                return item;
+            }));
+        }
+        resumeWithBatchResult(asyncResponse, items);
+    }
+
+    private static int getCreateOfferErrorStatus(Throwable cause) {
+        if (cause instanceof ValidationException)
+            return 422;
+        if (cause instanceof IncompatiblePaymentAccountException)
+            return 423;
+        if (cause instanceof NoAcceptedArbitratorException)
+            return 424;
+        if (cause instanceof PaymentAccountNotFoundException)
+            return 425;
+        if (cause instanceof AmountTooHighException)
+            return 426;
+        if (cause instanceof InsufficientMoneyException)
+            return 427;
+        return 500;
+    }
+
+    private static void resumeWithBatchResult(AsyncResponse asyncResponse, List<CompletableFuture<OfferBatchItem>> items) {
+        CompletableFuture.allOf(items.toArray(new CompletableFuture[0])).thenRun(() -> {
+            final OfferBatchResult result = new OfferBatchResult();
+            items.forEach(item -> result.results.add(item.join()));
+            result.succeeded = (int) result.results.stream().filter(item -> 200 == item.status).count();
+            result.skipped = (int) result.results.stream().filter(item -> Boolean.TRUE.equals(item.skipped)).count();
+            result.failed = result.results.size() - result.succeeded - result.skipped;
+            asyncResponse.resume(result);
+        });
+    }
+
     @ApiOperation(value = "Take offer", response = TradeDetails.class)
     @POST
     @Path("/{id}/take")
     public void takeOffer(@Suspended final AsyncResponse asyncResponse, @PathParam("id") String id, @Valid TakeOffer data) {
 //        TODO how do we go about not blocking this REST thread?
         final CompletableFuture<Trade> completableFuture = bisqProxy.offerTake(id, data.paymentAccountId, data.amount, true);
-        completableFuture.thenApply(trade -> asyncResponse.resume(new TradeDetails(trade)))
+        completableFuture.thenApply(trade -> asyncResponse.resume(bisqProxy.getTradeDetails(trade)))
                 .exceptionally(e -> {
                     final Throwable cause = e.getCause();
                     final Response.ResponseBuilder responseBuilder;
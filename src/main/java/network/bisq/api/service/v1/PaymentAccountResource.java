@@ -10,7 +10,13 @@ import io.swagger.annotations.Authorization;
 
 import javax.validation.Valid;
 import javax.ws.rs.*;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import static network.bisq.api.service.ResourceHelper.toConditionalResponse;
 
 @Api(value = "payment-accounts", authorizations = @Authorization(value = "accessToken"))
 @Produces(MediaType.APPLICATION_JSON)
@@ -36,9 +42,9 @@ public class PaymentAccountResource {
         return PaymentAccountHelper.toRestModel(bisqProxy.addPaymentAccount(paymentAccount));
     }
 
-    @ApiOperation("Get existing payment accounts")
+    @ApiOperation(value = "Get existing payment accounts", response = PaymentAccountList.class)
     @GET
-    public PaymentAccountList find() {
-        return bisqProxy.getAccountList();
+    public Response find(@Context Request request, @Context UriInfo uriInfo) {
+        return toConditionalResponse(request, uriInfo, bisqProxy.getCollectionVersions().getPaymentAccountsVersion(), bisqProxy::getAccountList);
     }
 }
@@ -1,8 +1,12 @@
 package network.bisq.api.service.v1;
 
+import bisq.core.trade.Trade;
 import com.google.common.collect.ImmutableList;
 import network.bisq.api.BisqProxy;
+import network.bisq.api.HistoryExporter;
 import network.bisq.api.NotFoundException;
+import network.bisq.api.Page;
+import network.bisq.api.Pager;
 import network.bisq.api.model.TradeDetails;
 import network.bisq.api.model.TradeList;
 import io.dropwizard.jersey.validation.ValidationErrorMessage;
@@ -10,16 +14,29 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.Authorization;
 import lombok.extern.slf4j.Slf4j;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.SseFeature;
 import org.hibernate.validator.constraints.NotEmpty;
 
 import javax.validation.ValidationException;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.ws.rs.*;
 import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
+import static network.bisq.api.service.ResourceHelper.openEventStream;
+import static network.bisq.api.service.ResourceHelper.toConditionalResponse;
 import static network.bisq.api.service.ResourceHelper.toValidationErrorResponse;
 import static java.util.stream.Collectors.toList;
 
@@ -34,20 +51,62 @@ public class TradeResource {
         this.bisqProxy = bisqProxy;
     }
 
-    @ApiOperation("List trades")
+    @ApiOperation(value = "List trades", response = TradeList.class, notes = "From and to are epoch millis of the take offer date, to is exclusive. " +
+            "Supported sort values are date and amount, prefixed with '-' for descending order. Pass nextCursor from the previous response as cursor " +
+            "to fetch the following page. Total is the number of trades matching the filters.")
     @GET
-    public TradeList find() {
-        final TradeList tradeList = new TradeList();
-        tradeList.trades = bisqProxy.getTradeList().stream().map(TradeDetails::new).collect(toList());
-        tradeList.total = tradeList.trades.size();
-        return tradeList;
+    public Response find(@Context Request request,
+                         @Context UriInfo uriInfo,
+                         @QueryParam("state") Trade.State state,
+                         @QueryParam("market") String market,
+                         @QueryParam("from") Long from,
+                         @QueryParam("to") Long to,
+                         @QueryParam("sort") String sort,
+                         @QueryParam("cursor") String cursor,
+                         @Min(1) @Max(Pager.MAX_LIMIT) @QueryParam("limit") Integer limit) {
+        return toConditionalResponse(request, uriInfo, bisqProxy.getCollectionVersions().getTradesVersion(), () -> {
+            final Page<Trade> page = bisqProxy.findTrades(state, market, from, to, sort, cursor, limit);
+            final TradeList tradeList = new TradeList();
+            tradeList.trades = page.getItems().stream().map(bisqProxy::getTradeDetails).collect(toList());
+            tradeList.total = page.getTotal();
+            tradeList.nextCursor = page.getNextCursor();
+            return tradeList;
+        });
+    }
+
+    @ApiOperation(value = "Export trades", notes = "Streams trades oldest first, one per line, as NDJSON (default) or CSV. From and to are " +
+            "epoch millis of the take offer date, to is exclusive.")
+    @GET
+    @Path("/export")
+    @Produces({HistoryExporter.NDJSON_MEDIA_TYPE, HistoryExporter.CSV_MEDIA_TYPE})
+    public Response export(@QueryParam("from") Long from,
+                           @QueryParam("to") Long to,
+                           @QueryParam("format") HistoryExporter.Format format) {
+        final HistoryExporter.Format exportFormat = null == format ? HistoryExporter.Format.NDJSON : format;
+        final StreamingOutput output = outputStream -> bisqProxy.writeTradeHistory(from, to, exportFormat, outputStream);
+        return Response.ok(output, exportFormat.getMediaType())
+                .header("Content-Disposition", "attachment; filename=\"trades." + exportFormat.getFileExtension() + "\"")
+                .build();
+    }
+
+    @ApiOperation(value = "Stream trade state changes", notes = "Server-sent events. A snapshot event with the status of the subscribed trades is sent " +
+            "first, followed by added, removed, state-changed, dispute-state-changed and trade-period-state-changed events. Pass tradeIds to follow " +
+            "only those trades, all trades are followed otherwise. Reconnecting with Last-Event-ID replays missed events when possible, otherwise a " +
+            "new snapshot is sent. A comment heartbeat is sent every 15 seconds.")
+    @GET
+    @Path("/stream")
+    @Produces(SseFeature.SERVER_SENT_EVENTS)
+    public EventOutput streamTrades(@HeaderParam(SseFeature.LAST_EVENT_ID_HEADER) String lastEventId,
+                                    @QueryParam("tradeIds") List<String> tradeIds) {
+        final Set<String> subscribedTradeIds = null == tradeIds || tradeIds.isEmpty() ? null : new HashSet<>(tradeIds);
+        return openEventStream(listener -> bisqProxy.subscribeToTrades(lastEventId, subscribedTradeIds, listener));
     }
 
     @ApiOperation("Get trade details")
     @GET
     @Path("/{id}")
     public TradeDetails getById(@PathParam("id") String id) {
-        return new TradeDetails(bisqProxy.getTrade(id));
+        return bisqProxy.getTradeDetails(bisqProxy.getTrade(id));
     }
 
     @ApiOperation("Confirm payment has started")
@@ -0,0 +1,68 @@
+package network.bisq.api.service.v1;
+
+import network.bisq.api.BisqProxy;
+import network.bisq.api.TradeRuleEngine;
+import network.bisq.api.model.TradeRule;
+import network.bisq.api.model.TradeRuleList;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.Authorization;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.validator.constraints.NotEmpty;
+
+import javax.validation.Valid;
+import javax.validation.ValidationException;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.*;
+import javax.ws.rs.core.MediaType;
+
+@Slf4j
+@Api(value = "trade-rules", authorizations = @Authorization(value = "accessToken"))
+@Produces(MediaType.APPLICATION_JSON)
+public class TradeRuleResource {
+
+    private final BisqProxy bisqProxy;
+
+    public TradeRuleResource(BisqProxy bisqProxy) {
+        this.bisqProxy = bisqProxy;
+    }
+
+    @ApiOperation(value = "List trade rules", response = TradeRuleList.class)
+    @GET
+    public TradeRuleList find() {
+        final TradeRuleList tradeRuleList = new TradeRuleList();
+        tradeRuleList.tradeRules = bisqProxy.getTradeRules();
+        tradeRuleList.total = tradeRuleList.tradeRules.size();
+        return tradeRuleList;
+    }
+
+    @ApiOperation(value = "Create trade rule", notes = "The action is performed for every trade matching the rule as soon as the trade reaches the " +
+            "state the action requires: deposit confirmed for PAYMENT_STARTED, payment started message received for PAYMENT_RECEIVED and payout " +
+            "published for MOVE_FUNDS_TO_BISQ_WALLET. Market, paymentMethod, cryptoOnly and tradeIds narrow the matching trades. " +
+            "PAYMENT_RECEIVED releases the BTC as soon as the buyer reports the payment as started, without any check of the payment itself, " +
+            "so it requires tradeIds. MinConfirmations is the number of confirmations of the deposit transaction and does not say anything " +
+            "about the payment, so it is rejected for PAYMENT_RECEIVED. Trades in dispute are skipped. Rules are not persisted across restarts.")
+    @POST
+    public TradeRule create(@Valid @NotNull TradeRule rule) {
+        if (TradeRule.Action.PAYMENT_RECEIVED == rule.action && rule.minConfirmations > 0)
+            throw new ValidationException("minConfirmations counts deposit confirmations and is not supported for PAYMENT_RECEIVED rules");
+        if (!TradeRuleEngine.isAllowed(rule))
+            throw new ValidationException("PAYMENT_RECEIVED rules must be limited to a list of trade ids");
+        return bisqProxy.addTradeRule(rule);
+    }
+
+    @ApiOperation("Get trade rule")
+    @GET
+    @Path("/{id}")
+    public TradeRule getById(@NotEmpty @PathParam("id") String id) {
+        return bisqProxy.getTradeRule(id);
+    }
+
+    @ApiOperation("Remove trade rule")
+    @DELETE
+    @Path("/{id}")
+    public void remove(@NotEmpty @PathParam("id") String id) {
+        bisqProxy.removeTradeRule(id);
+    }
+
+}
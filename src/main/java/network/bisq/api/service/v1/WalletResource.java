@@ -1,10 +1,12 @@
 package network.bisq.api.service.v1;
 
+import bisq.core.btc.AddressEntry;
 import bisq.core.btc.AddressEntryException;
 import bisq.core.btc.InsufficientFundsException;
 import com.google.common.collect.ImmutableList;
 import network.bisq.api.AmountTooLowException;
 import network.bisq.api.BisqProxy;
+import network.bisq.api.Pager;
 import io.dropwizard.jersey.validation.ValidationErrorMessage;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -12,9 +14,13 @@ import io.swagger.annotations.Authorization;
 import lombok.extern.slf4j.Slf4j;
 import network.bisq.api.model.*;
 import org.bitcoinj.core.Coin;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.SseFeature;
 
 import javax.validation.Valid;
 import javax.validation.ValidationException;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
 import javax.ws.rs.container.AsyncResponse;
@@ -22,6 +28,12 @@ import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static network.bisq.api.service.ResourceHelper.openEventStream;
+import static network.bisq.api.service.ResourceHelper.toValidationErrorResponse;
 
 
 @Api(value = "wallet", authorizations = @Authorization(value = "accessToken"))
@@ -41,6 +53,18 @@ public class WalletResource {
         return bisqProxy.getWalletDetails();
     }
 
+    @ApiOperation(value = "Stream wallet changes", notes = "Server-sent events. A snapshot event with the wallet balances is sent first, followed by " +
+            "balance-changed, tx-received, tx-confirmed and address-used events, coalesced every 500 ms. tx-received is only sent for transactions " +
+            "that add funds to the wallet. tx-confirmed is sent for incoming and outgoing transactions on every new depth until " +
+            "the transaction has 6 confirmations. Reconnecting with Last-Event-ID replays missed events when possible, otherwise a new snapshot is sent. " +
+            "A comment heartbeat is sent every 15 seconds.")
+    @GET
+    @Path("/stream")
+    @Produces(SseFeature.SERVER_SENT_EVENTS)
+    public EventOutput streamWalletEvents(@HeaderParam(SseFeature.LAST_EVENT_ID_HEADER) String lastEventId) {
+        return openEventStream(listener -> bisqProxy.subscribeToWalletEvents(lastEventId, listener));
+    }
+
     @ApiOperation("Get wallet addresses")
     @GET
     @Path("/addresses")
@@ -82,23 +106,23 @@ public class WalletResource {
                 });
     }
 
-    @ApiOperation("Get wallet transactions")
+    @ApiOperation(value = "Get wallet transactions", notes = "Transactions are ordered by update time, newest first. Since is an epoch timestamp in " +
+            "milliseconds. Pass nextCursor from the previous response as cursor to fetch the following page. Total is the number of transactions matching since.")
     @GET
     @Path("/transactions")
-    public WalletTransactionList getTransactions() {
-        return bisqProxy.getWalletTransactions();
+    public WalletTransactionList getTransactions(@QueryParam("since") Long since,
+                                                 @QueryParam("cursor") String cursor,
+                                                 @Min(1) @Max(Pager.MAX_LIMIT) @QueryParam("limit") Integer limit) {
+        return bisqProxy.getWalletTransactions(since, cursor, limit);
     }
 
-    @ApiOperation("Withdraw funds")
+    @ApiOperation(value = "Quote withdrawal fee", notes = "Estimates the fee of a withdrawal. Passing the returned quoteId to withdraw " +
+            "before it expires skips a second estimation, provided the amount, fee mode and source addresses and their balance are unchanged.")
     @POST
-    @Path("/withdraw")
-    public void withdrawFunds(@Valid WithdrawFundsForm data) {
-        final HashSet<String> sourceAddresses = new HashSet<>(data.sourceAddresses);
-        final Coin amountAsCoin = Coin.valueOf(data.amount);
-        final boolean feeExcluded = data.feeExcluded;
-        final String targetAddress = data.targetAddress;
+    @Path("/withdraw/quote")
+    public WithdrawQuote quoteWithdrawal(@Valid @NotNull WithdrawQuoteForm data) {
         try {
-            bisqProxy.withdrawFunds(sourceAddresses, amountAsCoin, feeExcluded, targetAddress);
+            return bisqProxy.getWithdrawQuote(new HashSet<>(data.sourceAddresses), Coin.valueOf(data.amount), data.feeExcluded);
         } catch (AddressEntryException e) {
             throw new ValidationException(e.getMessage());
         } catch (InsufficientFundsException e) {
@@ -107,4 +131,61 @@ public class WalletResource {
             throw new WebApplicationException(e.getMessage(), 424);
         }
     }
+
+    @ApiOperation(value = "Get unspent outputs", notes = "Lists the unspent outputs of the wallet with the context of the owning address. " +
+            "Supported sort values are value and confirmations, prefixed with '-' for descending order. Pass nextCursor from the previous response " +
+            "as cursor to fetch the following page. Total is the number of outputs matching the filters.")
+    @GET
+    @Path("/utxos")
+    public UtxoList getUtxos(@QueryParam("context") AddressEntry.Context context,
+                             @Min(0) @QueryParam("minConfirmations") Integer minConfirmations,
+                             @QueryParam("sort") String sort,
+                             @QueryParam("cursor") String cursor,
+                             @Min(1) @Max(Pager.MAX_LIMIT) @QueryParam("limit") Integer limit) {
+        return bisqProxy.getUtxos(context, minConfirmations, sort, cursor, limit);
+    }
+
+    @ApiOperation(value = "Withdraw funds", notes = "Responds once the withdrawal transaction has been broadcast.", response = WithdrawFundsResult.class)
+    @POST
+    @Path("/withdraw")
+    public void withdrawFunds(@Suspended final AsyncResponse asyncResponse, @Valid WithdrawFundsForm data) {
+        final HashSet<String> sourceAddresses = new HashSet<>(data.sourceAddresses);
+        final Coin amountAsCoin = Coin.valueOf(data.amount);
+        final boolean feeExcluded = data.feeExcluded;
+        final String targetAddress = data.targetAddress;
+        resumeWithWithdrawResult(asyncResponse, bisqProxy.withdrawFunds(sourceAddresses, amountAsCoin, feeExcluded, targetAddress, data.quoteId));
+    }
+
+    @ApiOperation(value = "Withdraw funds to many addresses", notes = "Sends all outputs in a single transaction. Amounts for the same address " +
+            "are added up. The fee is paid on top of the amounts by the source addresses. Responds once the transaction has been broadcast.",
+            response = WithdrawFundsResult.class)
+    @POST
+    @Path("/withdraw/batch")
+    public void withdrawFundsBatch(@Suspended final AsyncResponse asyncResponse, @Valid @NotNull WithdrawFundsBatchForm data) {
+        final Map<String, Coin> amountsByTargetAddress = new LinkedHashMap<>();
+        data.outputs.forEach(output -> amountsByTargetAddress.merge(output.address, Coin.valueOf(output.amount), Coin::add));
+        resumeWithWithdrawResult(asyncResponse, bisqProxy.withdrawFundsBatch(new HashSet<>(data.sourceAddresses), amountsByTargetAddress));
+    }
+
+    private static void resumeWithWithdrawResult(AsyncResponse asyncResponse, CompletableFuture<WithdrawFundsResult> future) {
+        future.thenApply(asyncResponse::resume)
+                .exceptionally(e -> {
+                    final Throwable cause = e.getCause();
+                    final Response.ResponseBuilder responseBuilder;
+                    if (cause instanceof ValidationException || cause instanceof AddressEntryException) {
+                        responseBuilder = toValidationErrorResponse(cause, 422);
+                    } else if (cause instanceof InsufficientFundsException) {
+                        responseBuilder = toValidationErrorResponse(cause, 423);
+                    } else if (cause instanceof AmountTooLowException) {
+                        responseBuilder = toValidationErrorResponse(cause, 424);
+                    } else {
+                        final String message = cause.getMessage();
+                        responseBuilder = Response.status(500);
+                        if (null != message)
+                            responseBuilder.entity(new ValidationErrorMessage(ImmutableList.of(message)));
+                        log.error("Unable to withdraw funds", cause);
+                    }
+                    return asyncResponse.resume(responseBuilder.build());
+                });
+    }
 }
@@ -0,0 +1,82 @@
+package network.bisq.api;
+
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/*
+ * This file is part of bisq.
+ *
+ * bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class EventJournalTest {
+
+    private final BlockingQueue<EventJournal.Event<String>> received = new LinkedBlockingQueue<>();
+
+    private EventJournal.Event<String> next() throws InterruptedException {
+        return received.poll(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void subscribe_withoutLastEventId_sendsSnapshotThenLiveEvents() throws Exception {
+        final EventJournal<String> journal = new EventJournal<>("test", 10);
+        journal.append("added", "a");
+        journal.subscribe(null, () -> "book", received::add);
+        journal.append("added", "b");
+
+        final EventJournal.Event<String> snapshot = next();
+        assertEquals(EventJournal.SNAPSHOT, snapshot.getName());
+        assertEquals("book", snapshot.getData());
+        assertEquals(1, snapshot.getSequence());
+        assertEquals("b", next().getData());
+    }
+
+    @Test
+    public void subscribe_withRecentLastEventId_replaysMissedEvents() throws Exception {
+        final EventJournal<String> journal = new EventJournal<>("test", 10);
+        journal.subscribe(null, () -> "book", received::add);
+        journal.append("added", "a");
+        journal.append("removed", "a");
+        next();
+        final String lastEventId = next().getId();
+        final EventJournal.Event<String> missed = next();
+        assertEquals("removed", missed.getName());
+
+        received.clear();
+        journal.subscribe(lastEventId, () -> "book", received::add);
+        assertEquals(missed.getId(), next().getId());
+    }
+
+    @Test
+    public void subscribe_withEvictedLastEventId_sendsSnapshot() throws Exception {
+        final EventJournal<String> journal = new EventJournal<>("test", 2);
+        journal.subscribe(null, () -> "book", received::add);
+        journal.append("added", "a");
+        next();
+        final String lastEventId = next().getId();
+        journal.append("added", "b");
+        journal.append("added", "c");
+        journal.append("added", "d");
+
+        final BlockingQueue<EventJournal.Event<String>> resumed = new LinkedBlockingQueue<>();
+        journal.subscribe(lastEventId, () -> "book", resumed::add);
+        assertEquals(EventJournal.SNAPSHOT, resumed.poll(5, TimeUnit.SECONDS).getName());
+        assertNull(resumed.poll(100, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,81 @@
+package network.bisq.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import network.bisq.api.model.ClosedTradableDetails;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/*
+ * This file is part of bisq.
+ *
+ * bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class HistoryExporterTest {
+
+    private final HistoryExporter exporter = new HistoryExporter(new ObjectMapper());
+
+    private static ClosedTradableDetails details(String id, long date, String status) {
+        final ClosedTradableDetails details = new ClosedTradableDetails();
+        details.id = id;
+        details.date = date;
+        details.currencyCode = "EUR";
+        details.amount = 100000L;
+        details.status = status;
+        return details;
+    }
+
+    private String write(Iterable<ClosedTradableDetails> rows, HistoryExporter.Format format) throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exporter.write(rows, format, HistoryExporter.CLOSED_TRADABLE_COLUMNS, outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void write_csv_writesHeaderAndOneLinePerRow() throws Exception {
+        final String csv = write(Arrays.asList(details("a", 1, "Completed"), details("b", 2, "Canceled")), HistoryExporter.Format.CSV);
+        assertEquals("id,date,direction,currencyCode,amount,price,volume,status\r\n" +
+                "a,1,,EUR,100000,,,Completed\r\n" +
+                "b,2,,EUR,100000,,,Canceled\r\n", csv);
+    }
+
+    @Test
+    public void write_csvWithoutRows_writesHeaderOnly() throws Exception {
+        assertEquals("id,date,direction,currencyCode,amount,price,volume,status\r\n", write(Collections.emptyList(), HistoryExporter.Format.CSV));
+    }
+
+    @Test
+    public void write_ndjson_writesOneJsonObjectPerLine() throws Exception {
+        final String ndjson = write(Arrays.asList(details("a", 1, "Completed"), details("b", 2, "Canceled")), HistoryExporter.Format.NDJSON);
+        final String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        final ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals("a", objectMapper.readTree(lines[0]).get("id").asText());
+        assertEquals("Canceled", objectMapper.readTree(lines[1]).get("status").asText());
+    }
+
+    @Test
+    public void toCsvField_quotesSeparatorsAndQuotes() {
+        assertEquals("", HistoryExporter.toCsvField(null));
+        assertEquals("plain", HistoryExporter.toCsvField("plain"));
+        assertEquals("\"a,b\"", HistoryExporter.toCsvField("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", HistoryExporter.toCsvField("say \"hi\""));
+        assertEquals("\"two\nlines\"", HistoryExporter.toCsvField("two\nlines"));
+    }
+}
@@ -0,0 +1,74 @@
+package network.bisq.api;
+
+import org.junit.Test;
+
+import javax.validation.ValidationException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/*
+ * This file is part of bisq.
+ *
+ * bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class PagerTest {
+
+    private static final List<String> ITEMS = Arrays.asList("c3", "a1", "e5", "b2", "d3");
+
+    private static Pager<String> pager(boolean descending) {
+        return new Pager<>("test", item -> Long.parseLong(item.substring(1)), item -> item, descending);
+    }
+
+    @Test
+    public void page_noLimit_returnsAllSorted() {
+        final Page<String> page = pager(false).page(ITEMS, null, null);
+        assertEquals(Arrays.asList("a1", "b2", "c3", "d3", "e5"), page.getItems());
+        assertEquals(5, page.getTotal());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void page_followingCursor_visitsEveryItemOnce() {
+        final Pager<String> pager = pager(true);
+        final Page<String> first = pager.page(ITEMS, null, 2);
+        assertEquals(Arrays.asList("e5", "c3"), first.getItems());
+        final Page<String> second = pager.page(ITEMS, first.getNextCursor(), 2);
+        assertEquals(Arrays.asList("d3", "b2"), second.getItems());
+        final Page<String> third = pager.page(ITEMS, second.getNextCursor(), 2);
+        assertEquals(Arrays.asList("a1"), third.getItems());
+        assertEquals(5, third.getTotal());
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    public void page_maxIntegerLimit_returnsAllWithoutCursor() {
+        final Page<String> page = pager(false).page(ITEMS, null, Integer.MAX_VALUE);
+        assertEquals(Arrays.asList("a1", "b2", "c3", "d3", "e5"), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test(expected = ValidationException.class)
+    public void page_cursorFromOtherOrdering_throwsValidationException() {
+        final String cursor = new PageCursor("other", 1, "a1").encode();
+        pager(false).page(ITEMS, cursor, 2);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void page_malformedCursor_throwsValidationException() {
+        pager(false).page(ITEMS, "not a cursor", 2);
+    }
+}
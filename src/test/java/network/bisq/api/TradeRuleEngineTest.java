@@ -0,0 +1,142 @@
+package network.bisq.api;
+
+import bisq.core.offer.Offer;
+import bisq.core.trade.BuyerTrade;
+import bisq.core.trade.SellerTrade;
+import bisq.core.trade.Trade;
+import network.bisq.api.model.TradeRule;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * This file is part of bisq.
+ *
+ * bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class TradeRuleEngineTest {
+
+    private static <T extends Trade> T trade(Class<T> tradeClass, String id, Trade.State state, String currencyCode) {
+        final T trade = mock(tradeClass);
+        final Offer offer = mock(Offer.class);
+        when(offer.getCurrencyCode()).thenReturn(currencyCode);
+        when(trade.getId()).thenReturn(id);
+        when(trade.getState()).thenReturn(state);
+        when(trade.getOffer()).thenReturn(offer);
+        return trade;
+    }
+
+    private static TradeRule rule(TradeRule.Action action) {
+        final TradeRule rule = new TradeRule();
+        rule.action = action;
+        return rule;
+    }
+
+    @Test
+    public void isAllowed_paymentReceivedWithoutLimit_returnsFalse() {
+        assertFalse(TradeRuleEngine.isAllowed(rule(TradeRule.Action.PAYMENT_RECEIVED)));
+    }
+
+    @Test
+    public void isAllowed_paymentReceivedCryptoOnly_returnsFalse() {
+        final TradeRule rule = rule(TradeRule.Action.PAYMENT_RECEIVED);
+        rule.cryptoOnly = true;
+        assertFalse(TradeRuleEngine.isAllowed(rule));
+    }
+
+    @Test
+    public void isAllowed_paymentReceivedForListedTrades_returnsTrue() {
+        final TradeRule rule = rule(TradeRule.Action.PAYMENT_RECEIVED);
+        rule.tradeIds = Collections.singletonList("t1");
+        assertTrue(TradeRuleEngine.isAllowed(rule));
+    }
+
+    @Test
+    public void isAllowed_paymentReceivedWithMinConfirmations_returnsFalse() {
+        final TradeRule rule = rule(TradeRule.Action.PAYMENT_RECEIVED);
+        rule.tradeIds = Collections.singletonList("t1");
+        rule.minConfirmations = 2;
+        assertFalse(TradeRuleEngine.isAllowed(rule));
+    }
+
+    @Test
+    public void isAllowed_otherActionsWithoutLimit_returnsTrue() {
+        assertTrue(TradeRuleEngine.isAllowed(rule(TradeRule.Action.PAYMENT_STARTED)));
+        assertTrue(TradeRuleEngine.isAllowed(rule(TradeRule.Action.MOVE_FUNDS_TO_BISQ_WALLET)));
+    }
+
+    @Test
+    public void isApplicable_paymentStarted_requiresBuyerWithConfirmedDeposit() {
+        assertTrue(TradeRuleEngine.isApplicable(TradeRule.Action.PAYMENT_STARTED,
+                trade(BuyerTrade.class, "t1", Trade.State.DEPOSIT_CONFIRMED_IN_BLOCK_CHAIN, "EUR")));
+        assertFalse(TradeRuleEngine.isApplicable(TradeRule.Action.PAYMENT_STARTED,
+                trade(SellerTrade.class, "t1", Trade.State.DEPOSIT_CONFIRMED_IN_BLOCK_CHAIN, "EUR")));
+        assertFalse(TradeRuleEngine.isApplicable(TradeRule.Action.PAYMENT_STARTED,
+                trade(BuyerTrade.class, "t1", Trade.State.PREPARATION, "EUR")));
+    }
+
+    @Test
+    public void isApplicable_paymentReceived_requiresPaymentStartedMessage() {
+        assertTrue(TradeRuleEngine.isApplicable(TradeRule.Action.PAYMENT_RECEIVED,
+                trade(SellerTrade.class, "t1", Trade.State.SELLER_RECEIVED_FIAT_PAYMENT_INITIATED_MSG, "XMR")));
+        assertFalse(TradeRuleEngine.isApplicable(TradeRule.Action.PAYMENT_RECEIVED,
+                trade(SellerTrade.class, "t1", Trade.State.DEPOSIT_CONFIRMED_IN_BLOCK_CHAIN, "XMR")));
+    }
+
+    @Test
+    public void isApplicable_moveFunds_requiresPublishedPayout() {
+        assertTrue(TradeRuleEngine.isApplicable(TradeRule.Action.MOVE_FUNDS_TO_BISQ_WALLET,
+                trade(SellerTrade.class, "t1", Trade.State.SELLER_SAW_ARRIVED_PAYOUT_TX_PUBLISHED_MSG, "EUR")));
+        assertTrue(TradeRuleEngine.isApplicable(TradeRule.Action.MOVE_FUNDS_TO_BISQ_WALLET,
+                trade(BuyerTrade.class, "t1", Trade.State.BUYER_RECEIVED_PAYOUT_TX_PUBLISHED_MSG, "EUR")));
+        assertFalse(TradeRuleEngine.isApplicable(TradeRule.Action.MOVE_FUNDS_TO_BISQ_WALLET,
+                trade(BuyerTrade.class, "t1", Trade.State.SELLER_RECEIVED_FIAT_PAYMENT_INITIATED_MSG, "EUR")));
+    }
+
+    @Test
+    public void matches_paymentReceivedWithoutLimit_neverMatches() {
+        final Trade trade = trade(SellerTrade.class, "t1", Trade.State.SELLER_RECEIVED_FIAT_PAYMENT_INITIATED_MSG, "EUR");
+        assertFalse(TradeRuleEngine.matches(rule(TradeRule.Action.PAYMENT_RECEIVED), trade, t -> 10));
+    }
+
+    @Test
+    public void matches_cryptoOnly_skipsFiatTrades() {
+        final TradeRule rule = rule(TradeRule.Action.MOVE_FUNDS_TO_BISQ_WALLET);
+        rule.cryptoOnly = true;
+        assertTrue(TradeRuleEngine.matches(rule, trade(SellerTrade.class, "t1", Trade.State.SELLER_SAW_ARRIVED_PAYOUT_TX_PUBLISHED_MSG, "XMR"), t -> 0));
+        assertFalse(TradeRuleEngine.matches(rule, trade(SellerTrade.class, "t2", Trade.State.SELLER_SAW_ARRIVED_PAYOUT_TX_PUBLISHED_MSG, "EUR"), t -> 0));
+    }
+
+    @Test
+    public void matches_tradeIds_skipsOtherTrades() {
+        final TradeRule rule = rule(TradeRule.Action.MOVE_FUNDS_TO_BISQ_WALLET);
+        rule.tradeIds = Collections.singletonList("t1");
+        assertTrue(TradeRuleEngine.matches(rule, trade(BuyerTrade.class, "t1", Trade.State.BUYER_RECEIVED_PAYOUT_TX_PUBLISHED_MSG, "EUR"), t -> 0));
+        assertFalse(TradeRuleEngine.matches(rule, trade(BuyerTrade.class, "t2", Trade.State.BUYER_RECEIVED_PAYOUT_TX_PUBLISHED_MSG, "EUR"), t -> 0));
+    }
+
+    @Test
+    public void matches_minConfirmations_waitsForDepositConfirmations() {
+        final TradeRule rule = rule(TradeRule.Action.PAYMENT_STARTED);
+        rule.minConfirmations = 3;
+        final Trade trade = trade(BuyerTrade.class, "t1", Trade.State.DEPOSIT_CONFIRMED_IN_BLOCK_CHAIN, "EUR");
+        assertFalse(TradeRuleEngine.matches(rule, trade, t -> 2));
+        assertTrue(TradeRuleEngine.matches(rule, trade, t -> 3));
+    }
+}
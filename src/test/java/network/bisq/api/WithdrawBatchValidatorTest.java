@@ -0,0 +1,65 @@
+package network.bisq.api;
+
+import bisq.core.app.BisqEnvironment;
+import bisq.core.btc.InsufficientFundsException;
+import bisq.core.btc.Restrictions;
+import com.google.common.collect.ImmutableMap;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.ECKey;
+import org.junit.Test;
+
+import javax.validation.ValidationException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/*
+ * This file is part of bisq.
+ *
+ * bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class WithdrawBatchValidatorTest {
+
+    private static final Coin AMOUNT = Coin.valueOf(100000);
+    private static final Coin AVAILABLE = Coin.valueOf(500000);
+
+    private static String address() {
+        return new ECKey().toAddress(BisqEnvironment.getParameters()).toBase58();
+    }
+
+    @Test
+    public void validate_validOutputs_returnsTotal() throws Exception {
+        assertEquals(AMOUNT.multiply(2), WithdrawBatchValidator.validate(ImmutableMap.of(address(), AMOUNT, address(), AMOUNT), AVAILABLE));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void validate_noOutputs_throwsValidationException() throws Exception {
+        WithdrawBatchValidator.validate(Collections.emptyMap(), AVAILABLE);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void validate_invalidAddress_throwsValidationException() throws Exception {
+        WithdrawBatchValidator.validate(ImmutableMap.of(address(), AMOUNT, "not an address", AMOUNT), AVAILABLE);
+    }
+
+    @Test(expected = AmountTooLowException.class)
+    public void validate_dustOutput_throwsAmountTooLowException() throws Exception {
+        WithdrawBatchValidator.validate(ImmutableMap.of(address(), Restrictions.getMinNonDustOutput().subtract(Coin.SATOSHI)), AVAILABLE);
+    }
+
+    @Test(expected = InsufficientFundsException.class)
+    public void validate_totalAboveAvailable_throwsInsufficientFundsException() throws Exception {
+        WithdrawBatchValidator.validate(ImmutableMap.of(address(), AMOUNT, address(), AVAILABLE), AVAILABLE);
+    }
+}
@@ -0,0 +1,64 @@
+package network.bisq.api;
+
+import com.google.common.collect.ImmutableSet;
+import org.bitcoinj.core.Coin;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/*
+ * This file is part of bisq.
+ *
+ * bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class WithdrawQuoteCacheTest {
+
+    private static final Set<String> SOURCES = ImmutableSet.of("a", "b");
+    private static final Coin AMOUNT = Coin.valueOf(100000);
+    private static final Coin AVAILABLE = Coin.valueOf(500000);
+
+    private static WithdrawQuoteCache.Quote quote(WithdrawQuoteCache cache) {
+        final WithdrawQuoteCache.Quote quote = new WithdrawQuoteCache.Quote(SOURCES, AMOUNT, false, Coin.valueOf(1000), AMOUNT, Coin.valueOf(99000), AVAILABLE);
+        cache.put(quote);
+        return quote;
+    }
+
+    @Test
+    public void take_matchingWithdrawal_returnsQuoteOnce() {
+        final WithdrawQuoteCache cache = new WithdrawQuoteCache();
+        final WithdrawQuoteCache.Quote quote = quote(cache);
+        assertSame(quote, cache.take(quote.getId(), ImmutableSet.of("b", "a"), AMOUNT, false, AVAILABLE));
+        assertNull(cache.take(quote.getId(), SOURCES, AMOUNT, false, AVAILABLE));
+    }
+
+    @Test
+    public void take_differentWithdrawal_returnsNull() {
+        final WithdrawQuoteCache cache = new WithdrawQuoteCache();
+        assertNull(cache.take(quote(cache).getId(), ImmutableSet.of("a"), AMOUNT, false, AVAILABLE));
+        assertNull(cache.take(quote(cache).getId(), SOURCES, Coin.valueOf(1), false, AVAILABLE));
+        assertNull(cache.take(quote(cache).getId(), SOURCES, AMOUNT, true, AVAILABLE));
+        assertNull(cache.take(quote(cache).getId(), SOURCES, AMOUNT, false, Coin.valueOf(1)));
+    }
+
+    @Test
+    public void take_unknownId_returnsNull() {
+        final WithdrawQuoteCache cache = new WithdrawQuoteCache();
+        quote(cache);
+        assertNull(cache.take("unknown", SOURCES, AMOUNT, false, AVAILABLE));
+        assertNull(cache.take(null, SOURCES, AMOUNT, false, AVAILABLE));
+    }
+}
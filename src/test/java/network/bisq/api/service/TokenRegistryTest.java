@@ -0,0 +1,84 @@
+package network.bisq.api.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * This file is part of bisq.
+ *
+ * bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+public class TokenRegistryTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_zeroTtl_throws() {
+        new TokenRegistry(0, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_negativeTtl_throws() {
+        new TokenRegistry(-1, false);
+    }
+
+    @Test
+    public void isValidToken_issuedToken_returnsTrue() {
+        final TokenRegistry registry = new TokenRegistry(60000, false);
+        final String token = registry.generateToken();
+        assertNotEquals(token, registry.generateToken());
+        assertTrue(registry.isValidToken(token));
+        assertFalse(registry.isValidToken("unknown"));
+        assertFalse(registry.isValidToken(null));
+    }
+
+    @Test
+    public void isValidToken_afterTtl_returnsFalse() throws InterruptedException {
+        final TokenRegistry registry = new TokenRegistry(100, false);
+        final String token = registry.generateToken();
+        Thread.sleep(300);
+        assertFalse(registry.isValidToken(token));
+    }
+
+    @Test
+    public void isValidToken_fixedExpiry_useDoesNotExtendLifetime() throws InterruptedException {
+        final TokenRegistry registry = new TokenRegistry(500, false);
+        final String token = registry.generateToken();
+        Thread.sleep(300);
+        assertTrue(registry.isValidToken(token));
+        Thread.sleep(400);
+        assertFalse(registry.isValidToken(token));
+    }
+
+    @Test
+    public void isValidToken_slidingExpiry_useExtendsLifetime() throws InterruptedException {
+        final TokenRegistry registry = new TokenRegistry(500, true);
+        final String token = registry.generateToken();
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(250);
+            assertTrue(registry.isValidToken(token));
+        }
+        Thread.sleep(800);
+        assertFalse(registry.isValidToken(token));
+    }
+
+    @Test
+    public void clear_invalidatesIssuedTokens() {
+        final TokenRegistry registry = new TokenRegistry(60000, false);
+        final String token = registry.generateToken();
+        registry.clear();
+        assertFalse(registry.isValidToken(token));
+    }
+}
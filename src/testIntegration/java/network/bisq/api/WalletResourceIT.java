@@ -18,6 +18,7 @@ import java.util.List;
 
 import static network.bisq.api.RegexMatcher.matchesRegex;
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.isA;
 import static org.junit.Assert.assertEquals;
 
@@ -171,7 +172,7 @@ public class WalletResourceIT {
 
     @InSequence(6)
     @Test
-    public void withdrawFunds_sufficientFunds_returns204() throws InterruptedException {
+    public void withdrawFunds_sufficientFunds_returns200() throws InterruptedException {
         final int alicePort = getAlicePort();
 
         final WithdrawFundsForm data = new WithdrawFundsForm();
@@ -189,7 +190,10 @@ public class WalletResourceIT {
                 post("/api/v1/wallet/withdraw").
 //
         then().
-                statusCode(204);
+                statusCode(200).
+                and().body("txHash", isA(String.class)).
+                and().body("fee", greaterThan(0)).
+                and().body("size", greaterThan(0));
 
         ApiTestHelper.waitForP2PMsgPropagation();
         assertEquals(0, ApiTestHelper.getBalance(alicePort).availableBalance);
@@ -199,7 +203,7 @@ public class WalletResourceIT {
 
     @InSequence(7)
     @Test
-    public void withdrawFunds_sufficientFundsExcludingFee_returns204() throws InterruptedException {
+    public void withdrawFunds_sufficientFundsExcludingFee_returns200() throws InterruptedException {
         final int alicePort = getAlicePort();
 
         emptyMinerAddress = createNewAccountAndAddress();
@@ -220,7 +224,10 @@ public class WalletResourceIT {
                 post("/api/v1/wallet/withdraw").
 //
         then().
-                statusCode(204);
+                statusCode(200).
+                and().body("txHash", isA(String.class)).
+                and().body("fee", greaterThan(0)).
+                and().body("size", greaterThan(0));
 
         ApiTestHelper.waitForP2PMsgPropagation();
         assertEquals(50000000, ApiTestHelper.getBalance(alicePort).availableBalance);